@@ -1,67 +1,116 @@
 import java.util.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
 import tester.*;
 import javalib.impworld.*;
 import java.awt.Color;
 import javalib.worldimages.*;
 
-// this interface represents a collection of items
-interface ICollection<T> {
+// this interface represents a collection of cells, given by their index in the grid
+interface ICollection {
 
   // checks if this collection has no items in it
   boolean empty();
 
   // adds the given item to this collection
-  void add(T item);
+  void add(int item);
 
   // removes the first item of this collection and returns its value
-  T remove();
+  int remove();
+
+  // returns how many items are in this collection
+  int size();
 }
 
-// represents a stack that implements ICollection
-class StackCollection<T> implements ICollection<T> {
-  ArrayDeque<T> contents;
+// represents a stack that implements ICollection, holding capacity cells before it 
+// has to grow
+class StackCollection implements ICollection {
+  int[] contents;
+  int size;
 
-  StackCollection() {
-    this.contents = new ArrayDeque<T>();
+  StackCollection(int capacity) {
+    this.contents = new int[capacity];
+    this.size = 0;
   }
 
-  // checks if the deque in this stack is empty 
+  // checks if this stack is empty 
   public boolean empty() {
-    return this.contents.isEmpty();
+    return this.size == 0;
   }
 
-  // removes the first item of the deque and returns its value
-  public T remove() {
-    return this.contents.removeFirst();
+  // removes the top item of the stack and returns its value
+  public int remove() {
+    this.size--;
+    return this.contents[this.size];
   }
 
-  // adds the given item to the beginning of this deque 
-  public void add(T item) {
-    this.contents.addFirst(item);
+  // adds the given item to the top of this stack 
+  public void add(int item) {
+    if (this.size == this.contents.length) {
+      this.contents = Arrays.copyOf(this.contents, Math.max(1, this.size * 2));
+    }
+    this.contents[this.size] = item;
+    this.size++;
   }
-}
 
-// represents a queue that implements ICollection
-class QueueCollection<T> implements ICollection<T> {
-  ArrayDeque<T> contents;
+  // returns how many items are in this stack 
+  public int size() {
+    return this.size;
+  }
+}
 
-  QueueCollection() {
-    this.contents = new ArrayDeque<T>();
+// represents a queue that implements ICollection, holding capacity cells in a ring 
+// buffer before it has to grow
+class QueueCollection implements ICollection {
+  int[] contents;
+  int head;
+  int size;
+
+  QueueCollection(int capacity) {
+    this.contents = new int[capacity];
+    this.head = 0;
+    this.size = 0;
   }
 
-  //checks if the deque in this queue is empty 
+  //checks if this queue is empty 
   public boolean empty() {
-    return this.contents.isEmpty();
+    return this.size == 0;
   }
 
   // removes the first item of the queue and returns its value
-  public T remove() {
-    return this.contents.removeFirst();
+  public int remove() {
+    int item = this.contents[this.head];
+    this.head = (this.head + 1) % this.contents.length;
+    this.size--;
+    return item;
   }
 
   // adds the given item to the end of this queue 
-  public void add(T item) {
-    this.contents.addLast(item);
+  public void add(int item) {
+    if (this.size == this.contents.length) {
+      int[] grown = new int[Math.max(1, this.size * 2)];
+      for (int i = 0; i < this.size; i++) {
+        grown[i] = this.contents[(this.head + i) % this.contents.length];
+      }
+      this.contents = grown;
+      this.head = 0;
+    }
+    this.contents[(this.head + this.size) % this.contents.length] = item;
+    this.size++;
+  }
+
+  // returns how many items are in this queue 
+  public int size() {
+    return this.size;
   }
 }
 
@@ -76,53 +125,619 @@ class CompareEdge implements Comparator<Edge> {
 // this class represents a Utils which contains functions needed throughout the code
 // with some additional variables which are used 
 class Utils {
-  Cell nextCell;
+  int nextCell;
+
+  int[] floodCells = new int[0]; // the searched cells in the order they were searched
+  int floodSize; // how many cells of floodCells are used
+  int flooded; // how many cells of floodCells have been flooded
+  int[] path = new int[0]; // the cell each searched cell was reached from
+  int expanded; // how many cells the last search expanded
+  Graph graph;
+
+  SteppedSearch search; // the search run a step at a time by floodStep, or null
+  int batch = 1; // how many steps floodTheCells takes each tick
+  long budget = 0; // how many nanoseconds floodTheCells may take each tick, 0 for no limit
+
+  // keeps the result of a search over the given graph so it can be flooded, where the 
+  // first searched cells of history were expanded in order. a search that did not find 
+  // the last cell gives an empty path, so no path is flooded 
+  void record(Graph graph, int[] history, int searched, int[] path) {
+    this.search = null;
+    this.floodCells = history;
+    this.floodSize = searched;
+    this.flooded = 0;
+    this.path = path;
+    this.expanded = searched;
+    this.graph = graph;
+    this.nextCell = graph.grid.size() - 1;
+  }
+
+  // runs the given search a step at a time from now on, instead of flooding the 
+  // result of a search that has already run 
+  void start(SteppedSearch search) {
+    this.search = search;
+    this.graph = search.graph;
+    this.floodCells = new int[0];
+    this.floodSize = 0;
+    this.flooded = 0;
+    this.path = new int[0];
+    this.expanded = 0;
+  }
+
+  // changes all the cells that have been searched to pink and then changes the 
+  // final path to red, taking up to batch steps per call and stopping early once 
+  // budget nanoseconds have passed 
+  void floodTheCells() {
+    long start = System.nanoTime();
+    for (int i = 0; i < this.batch && this.floodStep(); i++) {
+      if (this.budget > 0 && (i & 63) == 63 && System.nanoTime() - start > this.budget) {
+        break;
+      }
+    }
+  }
+
+  // changes the next searched cell to pink, and once every searched cell is pink 
+  // changes the next cell of the path to red, returning false if nothing was left 
+  boolean floodStep() {
+    if (this.search != null) {
+      boolean more = this.search.step();
+      this.expanded = this.search.expanded;
+      return more;
+    }
+    boolean changed = false;
+    if (this.flooded < this.floodSize) {
+      this.graph.mark(this.floodCells[this.flooded], Graph.VISITED);
+      this.flooded++;
+      changed = true;
+    }
+    if (this.flooded == this.floodSize && this.path.length > 0) {
+      if (this.nextCell != 0) {
+        this.graph.mark(this.path[this.nextCell], Graph.PATH);
+        this.nextCell = this.path[this.nextCell];
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  // returns how many cells are on the path found by the last search, from the first 
+  // cell to the last cell, or 0 if it found no path 
+  int pathLength() {
+    if (this.search != null) {
+      return this.search.pathLength();
+    }
+    if (this.path.length == 0) {
+      return 0;
+    }
+    int length = 1;
+    for (int cell = this.graph.grid.size() - 1; cell != 0; cell = this.path[cell]) {
+      length++;
+    }
+    return length;
+  }
+
+  // finishes flooding the cells and the path at once 
+  void skipToResult() {
+    while (this.floodStep()) {
+      // every step is done by floodStep
+    }
+  }
+}
+
+// this class keeps counters of the work done in the hot paths of the maze and sends 
+// the JFR events for it. the counters are only kept when the JVM is started with 
+// -Dmaze.metrics=true, and the events are only sent while a flight recording asks for 
+// them, so both cost next to nothing otherwise 
+class MazeMetrics {
+  static final boolean ENABLED = Boolean.getBoolean("maze.metrics");
+  static ConcurrentHashMap<String, AtomicLong> counters =
+      new ConcurrentHashMap<String, AtomicLong>();
+
+  // adds the given amount to the counter with the given name 
+  static void add(String name, long amount) {
+    MazeMetrics.counters.computeIfAbsent(name, k -> new AtomicLong()).addAndGet(amount);
+  }
+
+  // raises the counter with the given name to the given value if it is lower 
+  static void max(String name, long value) {
+    MazeMetrics.counters.computeIfAbsent(name, k -> new AtomicLong())
+        .accumulateAndGet(value, Math::max);
+  }
+
+  // finishes the given event for a phase of generation that looked at the given 
+  // number of edges and counts its work. the counts a phase does not measure are left 
+  // out, both here and in the overloads below 
+  static void generated(GenerationEvent event, String phase, long cells, long edges) {
+    event.finish();
+    if (event.shouldCommit()) {
+      event.phase = phase;
+      event.cells = cells;
+      event.edges = edges;
+      event.commit();
+    }
+    if (MazeMetrics.ENABLED) {
+      MazeMetrics.add("generate." + phase + ".calls", 1);
+      MazeMetrics.add("generate." + phase + ".nanos", event.nanos());
+      MazeMetrics.add("generate." + phase + ".edges", edges);
+    }
+  }
+
+  // does the same for a phase that also opened the given number of passages 
+  static void generated(GenerationEvent event, String phase, long cells, long edges,
+      long unions) {
+    event.unions = unions;
+    MazeMetrics.generated(event, phase, cells, edges);
+    if (MazeMetrics.ENABLED) {
+      MazeMetrics.add("generate." + phase + ".unions", unions);
+    }
+  }
+
+  // does the same for a phase that also called find on a disjoint set the given 
+  // number of times 
+  static void generated(GenerationEvent event, String phase, long cells, long edges,
+      long finds, long unions) {
+    event.finds = finds;
+    MazeMetrics.generated(event, phase, cells, edges, unions);
+    if (MazeMetrics.ENABLED) {
+      MazeMetrics.add("generate." + phase + ".finds", finds);
+    }
+  }
+
+  // finishes the given event for a search, counts it and returns whether it found the 
+  // last cell. like generated, the overloads below add only the counts a search measures 
+  static boolean searched(SearchEvent event, String solver, boolean found) {
+    event.finish();
+    if (event.shouldCommit()) {
+      event.solver = solver;
+      event.found = found;
+      event.commit();
+    }
+    if (MazeMetrics.ENABLED) {
+      MazeMetrics.add("search." + solver + ".calls", 1);
+      MazeMetrics.add("search." + solver + ".nanos", event.nanos());
+    }
+    return found;
+  }
+
+  // does the same for a search that expanded the given number of cells 
+  static boolean searched(SearchEvent event, String solver, boolean found, long expanded) {
+    event.expanded = expanded;
+    MazeMetrics.searched(event, solver, found);
+    if (MazeMetrics.ENABLED) {
+      MazeMetrics.add("search." + solver + ".expanded", expanded);
+    }
+    return found;
+  }
+
+  // does the same for a search that also held at most peakFrontier cells waiting 
+  static boolean searched(SearchEvent event, String solver, boolean found, long expanded,
+      long peakFrontier) {
+    event.peakFrontier = peakFrontier;
+    MazeMetrics.searched(event, solver, found, expanded);
+    if (MazeMetrics.ENABLED) {
+      MazeMetrics.max("search." + solver + ".peakFrontier", peakFrontier);
+    }
+    return found;
+  }
+
+  // does the same for a search whose queue can hold a cell more than once, and pushed 
+  // the given number of cells that were already waiting 
+  static boolean searched(SearchEvent event, String solver, boolean found, long expanded,
+      long peakFrontier, long duplicatePushes) {
+    event.duplicatePushes = duplicatePushes;
+    MazeMetrics.searched(event, solver, found, expanded, peakFrontier);
+    if (MazeMetrics.ENABLED) {
+      MazeMetrics.add("search." + solver + ".duplicatePushes", duplicatePushes);
+    }
+    return found;
+  }
+
+  // finishes the given event for a frame that painted the given number of cells and 
+  // counts its work 
+  static void drawn(FrameEvent event, long painted) {
+    event.finish();
+    if (event.shouldCommit()) {
+      event.painted = painted;
+      event.commit();
+    }
+    if (MazeMetrics.ENABLED) {
+      MazeMetrics.add("render.frames", 1);
+      MazeMetrics.add("render.nanos", event.nanos());
+      MazeMetrics.max("render.maxNanos", event.nanos());
+      MazeMetrics.add("render.painted", painted);
+    }
+  }
+
+  // prints every counter, sorted by name, to the given stream 
+  static void report(PrintStream out) {
+    for (String name : new TreeSet<String>(MazeMetrics.counters.keySet())) {
+      out.printf("%-40s %d%n", name, MazeMetrics.counters.get(name).get());
+    }
+  }
+}
+
+// this class represents a JFR event for one phase of generating a maze 
+@Name("maze.Generation")
+@Label("Maze Generation")
+@Category("Maze")
+class GenerationEvent extends Event {
+  @Label("Phase")
+  String phase;
+  @Label("Cells")
+  long cells;
+  @Label("Edges")
+  long edges;
+  @Label("Finds")
+  long finds;
+  @Label("Unions")
+  long unions;
+  transient long start = System.nanoTime();
+  transient long stop;
+
+  // ends this event and remembers when this phase ended 
+  void finish() {
+    this.stop = System.nanoTime();
+    this.end();
+  }
+
+  // returns how long this phase took in nanoseconds 
+  long nanos() {
+    return this.stop - this.start;
+  }
+}
+
+// this class represents a JFR event for one search of a maze 
+@Name("maze.Search")
+@Label("Maze Search")
+@Category("Maze")
+class SearchEvent extends Event {
+  @Label("Solver")
+  String solver;
+  @Label("Found")
+  boolean found;
+  @Label("Cells Expanded")
+  long expanded;
+  @Label("Peak Frontier")
+  long peakFrontier;
+  @Label("Duplicate Pushes")
+  long duplicatePushes;
+  transient long start = System.nanoTime();
+  transient long stop;
+
+  // ends this event and remembers when this search ended 
+  void finish() {
+    this.stop = System.nanoTime();
+    this.end();
+  }
+
+  // returns how long this search took in nanoseconds 
+  long nanos() {
+    return this.stop - this.start;
+  }
+}
+
+// this class represents a JFR event for drawing one frame of a maze 
+@Name("maze.Frame")
+@Label("Maze Frame")
+@Category("Maze")
+class FrameEvent extends Event {
+  @Label("Cells Painted")
+  long painted;
+  transient long start = System.nanoTime();
+  transient long stop;
+
+  // ends this event and remembers when this frame ended 
+  void finish() {
+    this.stop = System.nanoTime();
+    this.end();
+  }
+
+  // returns how long this frame took in nanoseconds 
+  long nanos() {
+    return this.stop - this.start;
+  }
+}
+
+// this class represents a disjoint-set forest over the cells 0 to size - 1, using 
+// union by rank and path halving so that find never recurses 
+class DisjointSet {
+  int[] parent;
+  byte[] rank;
+  long finds; // how many times find has been called
+
+  DisjointSet(int size) {
+    this.parent = new int[size];
+    this.rank = new byte[size];
+    for (int i = 0; i < size; i++) {
+      this.parent[i] = i;
+    }
+  }
 
-  ArrayDeque<Cell> floodCells = new ArrayDeque<Cell>();
-  HashMap<Cell, Cell> path = new HashMap<Cell, Cell>();
-  ArrayList<ArrayList<Cell>> cells = new ArrayList<ArrayList<Cell>>();
+  // returns the representative of the set the given cell belongs to 
+  int find(int cell) {
+    this.finds++;
+    while (this.parent[cell] != cell) {
+      this.parent[cell] = this.parent[this.parent[cell]];
+      cell = this.parent[cell];
+    }
+    return cell;
+  }
 
-  // finds the integer in the hash and returns that integer 
-  Integer find(HashMap<Integer, Integer> hash, Integer i) {
-    if (hash.get(i) != i) {
-      return this.find(hash, hash.get(i));
+  // joins the sets of the two given cells and returns false if they were already 
+  // in the same set 
+  boolean union(int cell1, int cell2) {
+    int root1 = this.find(cell1);
+    int root2 = this.find(cell2);
+    if (root1 == root2) {
+      return false;
+    }
+    if (this.rank[root1] < this.rank[root2]) {
+      this.parent[root1] = root2;
+    }
+    else if (this.rank[root1] > this.rank[root2]) {
+      this.parent[root2] = root1;
     }
     else {
-      return hash.get(i);
+      this.parent[root2] = root1;
+      this.rank[root1]++;
     }
+    return true;
   }
+}
 
-  // changes all the cells that have been searched to pink and then changes the 
-  // final path to red 
-  void floodTheCells() {
-    if (!this.floodCells.isEmpty()) {
-      this.floodCells.pop().color = Color.pink;
-      int x = this.cells.size() - 1;
-      int y = this.cells.get(0).size() - 1;
-      this.nextCell = this.cells.get(x).get(y);
+// this class represents a binary min-heap of cells ordered by long keys, stored in two 
+// parallel primitive arrays that grow as needed 
+class CellHeap {
+  long[] keys;
+  int[] cells;
+  int size;
+
+  CellHeap(int capacity) {
+    this.keys = new long[Math.max(capacity, 1)];
+    this.cells = new int[Math.max(capacity, 1)];
+    this.size = 0;
+  }
+
+  // checks if this heap is empty 
+  boolean empty() {
+    return this.size == 0;
+  }
+
+  // returns the smallest key in this heap 
+  long minKey() {
+    return this.keys[0];
+  }
+
+  // adds the given cell to this heap with the given key 
+  void add(int cell, long key) {
+    if (this.size == this.keys.length) {
+      this.keys = Arrays.copyOf(this.keys, this.size * 2);
+      this.cells = Arrays.copyOf(this.cells, this.size * 2);
+    }
+    int i = this.size;
+    this.size++;
+    while (i > 0 && this.keys[(i - 1) / 2] > key) {
+      this.keys[i] = this.keys[(i - 1) / 2];
+      this.cells[i] = this.cells[(i - 1) / 2];
+      i = (i - 1) / 2;
+    }
+    this.keys[i] = key;
+    this.cells[i] = cell;
+  }
+
+  // removes the cell with the smallest key from this heap and returns it 
+  int remove() {
+    int top = this.cells[0];
+    this.size--;
+    long key = this.keys[this.size];
+    int cell = this.cells[this.size];
+    int i = 0;
+    while (2 * i + 1 < this.size) {
+      int child = 2 * i + 1;
+      if (child + 1 < this.size && this.keys[child + 1] < this.keys[child]) {
+        child++;
+      }
+      if (this.keys[child] >= key) {
+        break;
+      }
+      this.keys[i] = this.keys[child];
+      this.cells[i] = this.cells[child];
+      i = child;
+    }
+    this.keys[i] = key;
+    this.cells[i] = cell;
+    return top;
+  }
+}
+
+// this class represents a breadth or depth first search of a graph that runs a step at 
+// a time, so it can be spread over the ticks of a window. each step expands a cell and 
+// marks it visited, and once the last cell is found each step marks one more cell of 
+// the path. instead of the history of every cell expanded and an int per cell for its 
+// parent, it keeps its frontier, a bit per cell for the cells it has reached and two 
+// bits per cell for the way back to the parent 
+class SteppedSearch {
+  static int UP = 0;
+  static int DOWN = 1;
+  static int LEFT = 2;
+  static int RIGHT = 3;
+
+  Graph graph;
+  ICollection cells; // the frontier, a QueueCollection or StackCollection
+  long[] reached;
+  byte[] parents; // the way back from each reached cell, four cells to a byte
+  int expanded;
+  int pathCell = -1; // the next cell of the path to mark, or -1 if not marking the path
+  boolean found;
+  boolean done;
+  int[] neighbors = new int[4];
+
+  SteppedSearch(Graph graph, ICollection cells) {
+    this.graph = graph;
+    this.cells = cells;
+    this.reached = new long[(graph.grid.size() + 63) >>> 6];
+    this.parents = new byte[(graph.grid.size() + 3) >>> 2];
+    this.reached[0] = 1L;
+    cells.add(0);
+  }
+
+  // returns the parent of the given reached cell 
+  int parentOf(int cell) {
+    int way = (this.parents[cell >>> 2] >>> ((cell & 3) << 1)) & 3;
+    if (way == SteppedSearch.UP) {
+      return cell - this.graph.grid.columns;
+    }
+    else if (way == SteppedSearch.DOWN) {
+      return cell + this.graph.grid.columns;
+    }
+    else if (way == SteppedSearch.LEFT) {
+      return cell - 1;
+    }
+    else {
+      return cell + 1;
+    }
+  }
+
+  // returns how many cells are on the path to the last cell, or 0 if it has not been 
+  // found yet 
+  int pathLength() {
+    if (!this.found) {
+      return 0;
+    }
+    int length = 1;
+    for (int cell = this.graph.grid.size() - 1; cell != 0; cell = this.parentOf(cell)) {
+      length++;
+    }
+    return length;
+  }
+
+  // remembers that the given cell was reached from the given parent 
+  void reach(int cell, int parent) {
+    int way;
+    if (parent == cell - this.graph.grid.columns) {
+      way = SteppedSearch.UP;
+    }
+    else if (parent == cell + this.graph.grid.columns) {
+      way = SteppedSearch.DOWN;
     }
-    if (this.floodCells.isEmpty() && !this.path.isEmpty()) {
-      if (!nextCell.equals(this.cells.get(0).get(0))) {
-        this.path.get(nextCell).updateColor(Color.red);
-        nextCell = this.path.get(nextCell);
+    else if (parent == cell - 1) {
+      way = SteppedSearch.LEFT;
+    }
+    else {
+      way = SteppedSearch.RIGHT;
+    }
+    this.reached[cell >>> 6] |= 1L << cell;
+    this.parents[cell >>> 2] |= (byte) (way << ((cell & 3) << 1));
+  }
+
+  // expands the next cell of the frontier or marks the next cell of the path, and 
+  // returns false once there is nothing left to do 
+  boolean step() {
+    if (this.pathCell >= 0) {
+      this.graph.mark(this.pathCell, Graph.PATH);
+      this.pathCell = this.pathCell == 0 ? -1 : this.parentOf(this.pathCell);
+      this.done = this.pathCell < 0;
+      return true;
+    }
+    if (this.done || this.cells.empty()) {
+      this.done = true;
+      return false;
+    }
+    int next = this.cells.remove();
+    if (next == this.graph.grid.size() - 1) {
+      this.found = true;
+      this.pathCell = next == 0 ? -1 : this.parentOf(next);
+      this.done = this.pathCell < 0;
+      return true;
+    }
+    this.graph.mark(next, Graph.VISITED);
+    this.expanded++;
+    int count = this.graph.grid.neighbors(next, this.neighbors);
+    for (int i = 0; i < count; i++) {
+      int neighbor = this.neighbors[i];
+      if ((this.reached[neighbor >>> 6] & (1L << neighbor)) == 0) {
+        this.reach(neighbor, next);
+        this.cells.add(neighbor);
       }
     }
+    return true;
+  }
+}
+
+// this class represents a monotone priority queue of cells keyed by small int distances, 
+// for dijkstra's algorithm over edges no longer than span. the cells are kept in linked 
+// lists of entries, one list per distance, in span + 1 buckets reused around a circle, 
+// which works because every cell waiting is at most span past the last one removed. 
+// entries are reused once removed, so the memory it takes follows the frontier 
+class BucketQueue {
+  int[] heads; // the first entry of each bucket, or -1
+  int[] cells;
+  int[] nexts; // the entry after each entry in its bucket or in the free list
+  int entries; // how many entries have ever been used
+  int free; // the first reusable entry, or -1
+  int size;
+  int distance; // the distance of the last cell removed
+
+  BucketQueue(int span) {
+    this.heads = new int[span + 1];
+    this.cells = new int[64];
+    this.nexts = new int[64];
+    this.clear();
+  }
+
+  // empties this queue 
+  void clear() {
+    Arrays.fill(this.heads, -1);
+    this.entries = 0;
+    this.free = -1;
+    this.size = 0;
+    this.distance = 0;
+  }
+
+  // checks if this queue is empty 
+  boolean empty() {
+    return this.size == 0;
   }
 
-  // this method draws a horizontal edge 
-  WorldImage drawXEdge(int length) {
-    WorldImage edge = new LineImage(new Posn(length, 0), Color.black).movePinhole(0, length / -2);
-    return edge;
+  // adds the given cell to this queue at the given distance, which is no less than the 
+  // distance of the last cell removed and at most span past it 
+  void add(int cell, int distance) {
+    int entry = this.free;
+    if (entry >= 0) {
+      this.free = this.nexts[entry];
+    }
+    else {
+      if (this.entries == this.cells.length) {
+        this.cells = Arrays.copyOf(this.cells, this.entries * 2);
+        this.nexts = Arrays.copyOf(this.nexts, this.entries * 2);
+      }
+      entry = this.entries++;
+    }
+    int bucket = distance % this.heads.length;
+    this.cells[entry] = cell;
+    this.nexts[entry] = this.heads[bucket];
+    this.heads[bucket] = entry;
+    this.size++;
   }
 
-  // this method draws a vertical edge 
-  WorldImage drawYEdge(int length) {
-    WorldImage edge = new LineImage(new Posn(0, length), Color.black).movePinhole(length / -2, 0);
-    return edge;
+  // removes a cell with the smallest distance from this queue and returns it, leaving 
+  // its distance in distance 
+  int remove() {
+    int bucket = this.distance % this.heads.length;
+    while (this.heads[bucket] < 0) {
+      this.distance++;
+      bucket = this.distance % this.heads.length;
+    }
+    int entry = this.heads[bucket];
+    this.heads[bucket] = this.nexts[entry];
+    this.nexts[entry] = this.free;
+    this.free = entry;
+    this.size--;
+    return this.cells[entry];
   }
 }
 
-// this class represents a cell on a graph  
+// this class represents a cell on a graph, where num is the cell's index in the grid 
 class Cell {
   int num;
   ArrayList<Cell> cellNeighbors;
@@ -163,281 +778,3390 @@ class Cell {
   }
 }
 
-// this class represents a graph with an nested array of cell and an array of edges 
-class Graph {
-  static int width = 500; // width of the canvas
-  static int height = Graph.width * 6 / 10; // height of the canvas
+// this class represents the walls of a grid of cells packed two bits per cell. 
+// cell i sits at row i / columns and column i % columns, its RIGHT bit is set when 
+// there is a passage to the cell on its right and its DOWN bit is set when there is 
+// a passage to the cell below it 
+class Grid {
+  static int RIGHT = 1;
+  static int DOWN = 2;
+
+  int rows;
+  int columns;
+  byte[] passages;
+
+  Grid(int rows, int columns) {
+    this(rows, columns, null);
+    this.passages = new byte[this.byteCount()];
+  }
 
-  ArrayList<ArrayList<Cell>> graphCells;
-  ArrayList<Edge> edges;
-  Random rand;
+  // constructor for grids that keep their packed passage bits somewhere other than 
+  // an array, which override packed and setPacked 
+  Grid(int rows, int columns, byte[] passages) {
+    if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid grid size: " + rows + "x" + columns);
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.passages = passages;
+  }
 
-  WorldScene scene = new WorldScene(Graph.width, Graph.height);
+  // returns how many bytes the packed passage bits of this grid take
+  int byteCount() {
+    return (int) (((long) this.rows * this.columns + 3) / 4);
+  }
 
-  // main constructor 
-  Graph() {
-    this.graphCells = new ArrayList<ArrayList<Cell>>();
-    this.edges = new ArrayList<Edge>();
-    this.rand = new Random();
+  // returns how many passages this grid has 
+  int passageCount() {
+    int count = 0;
+    for (int i = 0; i < this.byteCount(); i++) {
+      count += Integer.bitCount(this.packed(i) & 0xFF);
+    }
+    return count;
   }
 
-  // constructor that takes in a random - used for testing purposes 
-  Graph(Random rand) {
-    this.graphCells = new ArrayList<ArrayList<Cell>>();
-    this.edges = new ArrayList<Edge>();
-    this.rand = rand;
+  // returns the byte holding the passage bits of the cells 4 * i to 4 * i + 3
+  int packed(int i) {
+    return this.passages[i];
   }
 
-  // creates a nested array of cells with the given number of rows and columns
-  void makeGraph(int row, int column) {
-    for (int i = 0; i < row; i++) {
-      this.graphCells.add(this.createGraphRows(column, i * column));
-    }
+  // replaces the byte holding the passage bits of the cells 4 * i to 4 * i + 3
+  void setPacked(int i, int packed) {
+    this.passages[i] = (byte) packed;
   }
 
-  // helper method for makeGraph that creates each row 
-  ArrayList<Cell> createGraphRows(int column, int val) {
-    ArrayList<Cell> row = new ArrayList<Cell>();
-    for (int y = column; y > 0; y--) {
-      row.add(new Cell(val));
-      val = val + 1;
-    }
-    return row;
+  // returns the number of cells in this grid
+  int size() {
+    return this.rows * this.columns;
   }
 
-  // implements kruskal's algorithm to create a random maze based on edge weights 
-  ArrayList<Edge> kruskalsAlgorithm(ArrayList<Edge> givenEdges) {
-    Utils util = new Utils();
-    givenEdges.sort(new CompareEdge());
-    ArrayList<Edge> edges = new ArrayList<Edge>();
-    HashMap<Integer, Integer> representatives = new HashMap<Integer, Integer>();
+  // returns the index of the cell at the given row and column
+  int index(int row, int column) {
+    return row * this.columns + column;
+  }
 
-    for (ArrayList<Cell> arr : this.graphCells) {
-      for (Cell v : arr) {
-        representatives.put(v.num, v.num);
-      }
-    }
-    while (givenEdges.size() > 0) {
-      Edge e = givenEdges.remove(0);
+  // returns the row of the given cell
+  int rowOf(int cell) {
+    return cell / this.columns;
+  }
 
-      if (util.find(representatives, e.cell1.num) != (util.find(representatives, e.cell2.num))) {
-        edges.add(e);
-        representatives.replace(util.find(representatives, e.cell1.num),
-            util.find(representatives, e.cell2.num));
-      }
-      else {
-        e.cell1.removeCell(e.cell2);
-        e.cell2.removeCell(e.cell1);
-      }
-    }
-    return edges;
+  // returns the column of the given cell
+  int columnOf(int cell) {
+    return cell % this.columns;
   }
 
-  // creates an edge between the given cell and the bottom cell
-  void addEdges() {
-    for (int i = 0; i < this.graphCells.size(); i++) {
-      if (i < this.graphCells.size() - 1) {
-        for (int j = 0; j < this.graphCells.get(0).size(); j++) {
-          Cell cell1 = this.graphCells.get(i).get(j);
-          Cell cell2 = this.graphCells.get(i + 1).get(j);
-          this.edges.add(new Edge(cell1, cell2, this.rand.nextInt(100)));
-          cell1.cellNeighbors.add(cell2);
-          cell2.cellNeighbors.add(cell1);
-        }
-      }
-    }
-    this.addEdgesHelper();
+  // returns the two passage bits of the given cell
+  int bits(int cell) {
+    return (this.packed(cell >>> 2) >>> ((cell & 3) << 1)) & 3;
   }
 
-  //creates an edge between the given cell and the next cell 
-  void addEdgesHelper() {
-    for (int i = 0; i < this.graphCells.size(); i++) {
-      for (int j = 0; j < this.graphCells.get(0).size(); j++) {
-        if (j < this.graphCells.get(0).size() - 1) {
-          Cell cell1 = this.graphCells.get(i).get(j);
-          Cell cell2 = this.graphCells.get(i).get(j + 1);
-          this.edges.add(new Edge(cell1, cell2, this.rand.nextInt(100)));
-          cell1.cellNeighbors.add(cell2);
-          cell2.cellNeighbors.add(cell1);
+  // replaces the two passage bits of the given cell
+  void setBits(int cell, int bits) {
+    int shift = (cell & 3) << 1;
+    this.setPacked(cell >>> 2, (this.packed(cell >>> 2) & ~(3 << shift)) | (bits << shift));
+  }
 
-        }
-      }
+  // checks if the given cell has a passage to the cell on its right
+  boolean hasRight(int cell) {
+    return (this.bits(cell) & Grid.RIGHT) != 0;
+  }
+
+  // checks if the given cell has a passage to the cell below it
+  boolean hasDown(int cell) {
+    return (this.bits(cell) & Grid.DOWN) != 0;
+  }
+
+  // checks if the two given cells are next to each other with no wall between them
+  boolean connected(int cell1, int cell2) {
+    int low = Math.min(cell1, cell2);
+    int high = Math.max(cell1, cell2);
+    if (high == low + 1 && high % this.columns != 0) {
+      return this.hasRight(low);
     }
-    this.edges = this.kruskalsAlgorithm(this.edges); // runs kruskals algorith 
+    return high == low + this.columns && this.hasDown(low);
   }
 
-  // draws the graph and will add edges throughout the graph as needed
-  WorldScene draw() {
+  // removes the wall between the two given cells 
+  void open(int cell1, int cell2) {
+    int low = Math.min(cell1, cell2);
+    this.setBits(low, this.bits(low) | this.direction(cell1, cell2));
+  }
 
-    WorldImage background = new RectangleImage(Graph.width, Graph.height,
-        OutlineMode.SOLID, Color.LIGHT_GRAY);
+  // puts a wall between the two given cells 
+  void close(int cell1, int cell2) {
+    int low = Math.min(cell1, cell2);
+    this.setBits(low, this.bits(low) & ~this.direction(cell1, cell2));
+  }
 
-    scene.placeImageXY(background, Graph.width / 2, Graph.height / 2);
+  // returns which bit of the lower of the two given cells joins them
+  int direction(int cell1, int cell2) {
+    int low = Math.min(cell1, cell2);
+    int high = Math.max(cell1, cell2);
+    if (high == low + 1 && high % this.columns != 0) {
+      return Grid.RIGHT;
+    }
+    if (high == low + this.columns) {
+      return Grid.DOWN;
+    }
+    throw new IllegalArgumentException("Cells " + cell1 + " and " + cell2 + " are not adjacent");
+  }
+
+  // writes the cells the given cell has passages to into out, in the order up, down, 
+  // left, right, and returns how many there are 
+  int neighbors(int cell, int[] out) {
+    int count = 0;
+    if (cell >= this.columns && this.hasDown(cell - this.columns)) {
+      out[count++] = cell - this.columns;
+    }
+    if (this.hasDown(cell)) {
+      out[count++] = cell + this.columns;
+    }
+    if (cell % this.columns != 0 && this.hasRight(cell - 1)) {
+      out[count++] = cell - 1;
+    }
+    if (this.hasRight(cell)) {
+      out[count++] = cell + 1;
+    }
+    return count;
+  }
 
-    int xMax = graphCells.size();
-    int yMax = graphCells.get(0).size();
+  // writes the cells next to the given cell, walls or not, into the given array in the 
+  // same order as neighbors and returns how many there are 
+  int adjacent(int cell, int[] out) {
+    int count = 0;
+    if (cell >= this.columns) {
+      out[count++] = cell - this.columns;
+    }
+    if (cell < this.size() - this.columns) {
+      out[count++] = cell + this.columns;
+    }
+    if (cell % this.columns != 0) {
+      out[count++] = cell - 1;
+    }
+    if (cell % this.columns != this.columns - 1) {
+      out[count++] = cell + 1;
+    }
+    return count;
+  }
+}
 
+// this class represents a grid whose packed passage bits are read straight from a 
+// memory mapped maze file, so a maze of any size opens without being read in 
+class MappedGrid extends Grid {
+  MappedByteBuffer buffer;
+  long seed;
 
-    int xLength = Graph.width / (yMax);
-    int yLength = Graph.height / (xMax);
+  MappedGrid(int rows, int columns, long seed, MappedByteBuffer buffer) {
+    super(rows, columns, null);
+    this.seed = seed;
+    this.buffer = buffer;
+  }
 
+  // returns the byte holding the passage bits of the cells 4 * i to 4 * i + 3
+  int packed(int i) {
+    return this.buffer.get(MazeFile.HEADER + i);
+  }
 
-    WorldImage start = new RectangleImage(xLength, yLength, OutlineMode.SOLID, Color.green);
-    WorldImage end = new RectangleImage(xLength, yLength, OutlineMode.SOLID, Color.magenta);
+  // replaces the byte holding the passage bits of the cells 4 * i to 4 * i + 3
+  void setPacked(int i, int packed) {
+    this.buffer.put(MazeFile.HEADER + i, (byte) packed);
+  }
+}
 
+// this class reads and writes maze files. a file starts with a 24 byte header holding 
+// MAGIC, VERSION, the rows, the columns and the seed the maze was made from, followed 
+// by the passage bits of every cell packed four cells to a byte just as Grid keeps them 
+class MazeFile {
+  static int MAGIC = 0x4D415A45; // "MAZE"
+  static int VERSION = 1;
+  static int HEADER = 24;
+
+  // writes the given grid and the seed it was made from to the given file 
+  static void save(Grid grid, long seed, File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+          MazeFile.HEADER + grid.byteCount());
+      buffer.putInt(MazeFile.MAGIC).putInt(MazeFile.VERSION);
+      buffer.putInt(grid.rows).putInt(grid.columns).putLong(seed);
+      if (grid.passages != null) {
+        buffer.put(grid.passages);
+      }
+      else {
+        for (int i = 0; i < grid.byteCount(); i++) {
+          buffer.put((byte) grid.packed(i));
+        }
+      }
+      buffer.force();
+    }
+  }
 
-    for (int i = 0; i < xMax; i++) {
-      for (int j = 0; j < yMax; j++) {
-        WorldImage cell = this.graphCells.get(i).get(j).drawCell(xLength); // gets the drawn cell 
-        scene.placeImageXY(cell, (j * xLength) + xLength / 2, (i * yLength) + yLength / 2); 
+  // maps the given maze file into memory, read only unless writable is true 
+  static MappedGrid open(File file, boolean writable) throws IOException {
+    try (FileChannel channel = writable
+        ? FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)
+        : FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      if (channel.size() < MazeFile.HEADER) {
+        throw new IOException("Not a maze file: " + file);
+      }
+      MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE
+          : FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MazeFile.MAGIC || buffer.getInt() != MazeFile.VERSION) {
+        throw new IOException("Not a maze file: " + file);
+      }
+      int rows = buffer.getInt();
+      int columns = buffer.getInt();
+      long seed = buffer.getLong();
+      if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE) {
+        throw new IOException("Not a maze file: " + file);
       }
+      long size = MazeFile.HEADER + ((long) rows * columns + 3) / 4;
+      if (channel.size() != size) {
+        throw new IOException("Maze file " + file + " should be " + size + " bytes but is "
+            + channel.size());
+      }
+      return new MappedGrid(rows, columns, seed, buffer);
     }
+  }
+}
+
+// this interface represents something that takes a maze one row at a time 
+interface IRowSink {
 
-    scene.placeImageXY(start, xLength / 2, yLength / 2);
-    scene.placeImageXY(end, Graph.width - xLength / 2, Graph.height - yLength / 2);
+  // takes the passage bits, Grid.RIGHT and Grid.DOWN, of every cell of the given row
+  void acceptRow(int row, byte[] bits);
+}
 
-    return this.drawEdges(xMax, yMax, xLength, yLength);
+// represents an IRowSink that puts every row into a grid 
+class GridSink implements IRowSink {
+  Grid grid;
 
+  GridSink(Grid grid) {
+    this.grid = grid;
   }
 
-  // draws the edges for the graph onto the scene 
-  WorldScene drawEdges(int xMax, int yMax, int xLength, int yLength) {
-    for (int i = 0; i < xMax; i++) {
-      for (int j = 0; j < yMax; j++) {
-        if (j < this.graphCells.get(0).size() - 1
-            && !this.graphCells.get(i).get(j).containsCell(this.graphCells.get(i).get(j + 1))) {
-          scene.placeImageXY(new Utils().drawYEdge(xLength),
-              (j * xLength) + xLength / 2, (i * yLength) + yLength / 2);
-        }
-        if (i < this.graphCells.size() - 1
-            && !this.graphCells.get(i).get(j).containsCell(this.graphCells.get(i + 1).get(j))) {
-          scene.placeImageXY(new Utils().drawXEdge(yLength),
-              (j * xLength) + xLength / 2, (i * yLength) + yLength / 2);
-        }
-      }
+  // sets the passage bits of every cell of the given row of the grid
+  public void acceptRow(int row, byte[] bits) {
+    for (int column = 0; column < bits.length; column++) {
+      this.grid.setBits(this.grid.index(row, column), bits[column]);
     }
-    return scene;
   }
+}
 
-  // searches the graph using breadth first search 
-  boolean breadthFirstSearch(Utils u) {
-    return searchHelper(new QueueCollection<Cell>(), u);
+// represents an IRowSink that streams every row to a maze file as it arrives, so the 
+// maze never has to fit in memory 
+class MazeFileWriter implements IRowSink, Closeable {
+  FileChannel channel;
+  ByteBuffer buffer;
+  int pending; // the passage bits of the cells not yet written
+  int pendingCells; // how many cells are in pending, always below 4
+
+  MazeFileWriter(File file, int rows, int columns, long seed) throws IOException {
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    this.buffer = ByteBuffer.allocate(1 << 16);
+    this.buffer.putInt(MazeFile.MAGIC).putInt(MazeFile.VERSION);
+    this.buffer.putInt(rows).putInt(columns).putLong(seed);
   }
 
-  // searches the graph using depth first search 
-  boolean depthFirstSearch(Utils u) {
-    return searchHelper(new StackCollection<Cell>(), u);
+  // packs the given row after the cells already written 
+  public void acceptRow(int row, byte[] bits) {
+    for (byte b : bits) {
+      this.pending |= b << (this.pendingCells * 2);
+      this.pendingCells++;
+      if (this.pendingCells == 4) {
+        this.put((byte) this.pending);
+        this.pending = 0;
+        this.pendingCells = 0;
+      }
+    }
   }
 
-  // searches the graph with a given ICollection, either StackCollection or 
-  // QueueCollection, and returns true if found 
-  boolean searchHelper(ICollection<Cell> cells, Utils utils) {
+  // adds the given byte to the buffer, writing the buffer out when it is full 
+  void put(byte b) {
+    if (!this.buffer.hasRemaining()) {
+      this.flush();
+    }
+    this.buffer.put(b);
+  }
 
-    int xMax = this.graphCells.size() - 1;
-    int yMax = this.graphCells.get(0).size() - 1; 
+  // writes out everything in the buffer 
+  void flush() {
+    this.buffer.flip();
+    try {
+      while (this.buffer.hasRemaining()) {
+        this.channel.write(this.buffer);
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.buffer.clear();
+  }
 
-    Cell cell1 = this.graphCells.get(0).get(0); 
-    Cell cell2 = this.graphCells.get(xMax).get(yMax);
+  // writes out the last cells and closes the file 
+  public void close() throws IOException {
+    if (this.pendingCells > 0) {
+      this.put((byte) this.pending);
+      this.pendingCells = 0;
+    }
+    this.flush();
+    this.channel.close();
+  }
+}
 
-    HashMap<Cell, Cell> backtrack = new HashMap<Cell, Cell>();
-    ArrayDeque<Cell> history = new ArrayDeque<Cell>();
-    cells.add(cell1);
+// this class generates a maze one row at a time with eller's algorithm, handing each 
+// row to a sink as soon as it is done. only the set labels of the current row are kept, 
+// so memory grows with the columns and not with the rows. labels are numbers below 
+// columns that are reused once no cell of the row has them 
+class EllerGenerator {
+  int rows;
+  int columns;
+  Random rand;
 
-    while (!cells.empty()) {
-      Cell next = cells.remove();
+  EllerGenerator(int rows, int columns, Random rand) {
+    this.rows = rows;
+    this.columns = columns;
+    this.rand = rand;
+  }
 
-      if (next.equals(cell2)) {
-        utils.floodCells.addAll(history); 
-        utils.path = backtrack;
-        utils.cells = this.graphCells;
-        return true; 
+  // generates every row of the maze into the given sink 
+  void generate(IRowSink sink) {
+    int[] labels = new int[this.columns]; // the set of each cell of the row, -1 if none
+    DisjointSet joined = new DisjointSet(this.columns); // sets joined within the row
+    int[] free = new int[this.columns]; // labels no cell of the row has
+    int freeSize = 0;
+    boolean[] used = new boolean[this.columns];
+    int[] seen = new int[this.columns]; // cells of each set seen so far in the row
+    int[] down = new int[this.columns]; // the cell of each set that is sure to go down
+    boolean[] goesDown = new boolean[this.columns];
+    byte[] bits = new byte[this.columns];
+    Arrays.fill(labels, -1);
+    for (int i = this.columns - 1; i >= 0; i--) {
+      free[freeSize++] = i;
+    }
+
+    for (int row = 0; row < this.rows; row++) {
+      boolean last = row == this.rows - 1;
+      Arrays.fill(bits, (byte) 0);
+      for (int c = 0; c < this.columns; c++) {
+        if (labels[c] < 0) {
+          labels[c] = free[--freeSize];
+        }
+        joined.parent[labels[c]] = labels[c];
+        joined.rank[labels[c]] = 0;
       }
-      else if (!history.contains(next)) {
-        for (int i = 0; i <  next.cellNeighbors.size(); i++) {
-          cells.add(next.cellNeighbors.get(i));
-          backtrack.putIfAbsent(next.cellNeighbors.get(i), next);
+
+      // joins neighboring cells of different sets at random, or always on the last row
+      for (int c = 0; c < this.columns - 1; c++) {
+        if (joined.find(labels[c]) != joined.find(labels[c + 1])
+            && (last || this.rand.nextBoolean())) {
+          joined.union(labels[c], labels[c + 1]);
+          bits[c] |= Grid.RIGHT;
         }
-        history.addLast(next);
       }
+      for (int c = 0; c < this.columns; c++) {
+        labels[c] = joined.find(labels[c]);
+        seen[labels[c]] = 0;
+      }
+
+      // every set goes down at least once, through a cell picked at random
+      if (!last) {
+        for (int c = 0; c < this.columns; c++) {
+          seen[labels[c]]++;
+          if (this.rand.nextInt(seen[labels[c]]) == 0) {
+            down[labels[c]] = c;
+          }
+          goesDown[c] = this.rand.nextBoolean();
+        }
+        for (int c = 0; c < this.columns; c++) {
+          if (goesDown[c] || down[labels[c]] == c) {
+            bits[c] |= Grid.DOWN;
+          }
+          else {
+            labels[c] = -1;
+          }
+        }
+        Arrays.fill(used, false);
+        for (int c = 0; c < this.columns; c++) {
+          if (labels[c] >= 0) {
+            used[labels[c]] = true;
+          }
+        }
+        freeSize = 0;
+        for (int i = this.columns - 1; i >= 0; i--) {
+          if (!used[i]) {
+            free[freeSize++] = i;
+          }
+        }
+      }
+      sink.acceptRow(row, bits);
+    }
+  }
+}
+
+// this class builds the candidate edges of a grid, each packed into a long holding its 
+// weight, the index of its upper or left cell and whether it goes DOWN or RIGHT from 
+// that cell. weights are below MAX_WEIGHT so the edges are sorted with a counting sort 
+class EdgeList {
+  static int MAX_WEIGHT = 100;
+
+  // packs an edge going in the given direction from the given cell 
+  static long pack(int cell, int direction, int weight) {
+    return ((long) weight << 33) | ((long) cell << 1) | (direction == Grid.DOWN ? 1 : 0);
+  }
+
+  // returns the upper or left cell of the given edge 
+  static int cellOf(long edge) {
+    return (int) ((edge >>> 1) & 0xFFFFFFFFL);
+  }
+
+  // returns the direction, Grid.RIGHT or Grid.DOWN, of the given edge from its cell 
+  static int directionOf(long edge) {
+    return (edge & 1) == 0 ? Grid.RIGHT : Grid.DOWN;
+  }
+
+  // returns the weight of the given edge 
+  static int weightOf(long edge) {
+    return (int) (edge >>> 33);
+  }
+
+  // returns the slot of the given edge, its cell times two plus one for Grid.DOWN, which 
+  // numbers every edge of a grid under twice its size 
+  static int slotOf(long edge) {
+    return (int) (edge & 0x1FFFFFFFFL);
+  }
+
+  // returns the lower or right cell of the given edge in the given grid 
+  static int otherCell(long edge, Grid grid) {
+    return EdgeList.cellOf(edge) + ((edge & 1) == 0 ? 1 : grid.columns);
+  }
+
+  // creates every edge of the given grid with a random weight, the edges between rows 
+  // first and then the edges within rows, and returns them sorted by weight. the sort 
+  // is stable, so equal weights keep the order they were created in 
+  static long[] sortedEdges(Grid grid, Random rand) {
+    return EdgeList.sortedEdges(grid, rand, 0, grid.rows, 0, grid.columns);
+  }
+
+  // does the same as sortedEdges for only the edges inside the block of cells from 
+  // row0 to row1 - 1 and column0 to column1 - 1 
+  static long[] sortedEdges(Grid grid, Random rand, int row0, int row1, 
+      int column0, int column1) {
+    long downCount = (long) (row1 - row0 - 1) * (column1 - column0);
+    long total = downCount + (long) (row1 - row0) * (column1 - column0 - 1);
+    if (total > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Too many edges: " + total);
+    }
+    GenerationEvent created = new GenerationEvent();
+    created.begin();
+    byte[] weights = new byte[(int) total];
+    int[] starts = new int[EdgeList.MAX_WEIGHT + 1];
+    for (int k = 0; k < weights.length; k++) {
+      weights[k] = (byte) rand.nextInt(EdgeList.MAX_WEIGHT);
+      starts[weights[k] + 1]++;
+    }
+    for (int w = 1; w <= EdgeList.MAX_WEIGHT; w++) {
+      starts[w] += starts[w - 1];
+    }
+    MazeMetrics.generated(created, "edges", (long) (row1 - row0) * (column1 - column0),
+        weights.length);
+
+    GenerationEvent sorting = new GenerationEvent();
+    sorting.begin();
+    long[] sorted = new long[weights.length];
+    int k = 0;
+    for (int i = row0; i < row1 - 1; i++) {
+      for (int j = column0; j < column1; j++) {
+        sorted[starts[weights[k]]++] = EdgeList.pack(grid.index(i, j), Grid.DOWN, weights[k]);
+        k++;
+      }
+    }
+    for (int i = row0; i < row1; i++) {
+      for (int j = column0; j < column1 - 1; j++) {
+        sorted[starts[weights[k]]++] = EdgeList.pack(grid.index(i, j), Grid.RIGHT, weights[k]);
+        k++;
+      }
+    }
+    MazeMetrics.generated(sorting, "sort", (long) (row1 - row0) * (column1 - column0),
+        sorted.length);
+    return sorted;
+  }
+
+  // returns the given packed edges stably sorted by weight 
+  static long[] sortByWeight(long[] edges) {
+    int[] starts = new int[EdgeList.MAX_WEIGHT + 1];
+    for (long e : edges) {
+      starts[EdgeList.weightOf(e) + 1]++;
+    }
+    for (int w = 1; w <= EdgeList.MAX_WEIGHT; w++) {
+      starts[w] += starts[w - 1];
+    }
+    long[] sorted = new long[edges.length];
+    for (long e : edges) {
+      sorted[starts[EdgeList.weightOf(e)]++] = e;
+    }
+    return sorted;
+  }
+}
+
+// this class generates a maze by running kruskal's algorithm inside square tiles of the 
+// grid on a ForkJoinPool, then joining the tiles with one more kruskal pass over the 
+// edges that cross tile borders. every tile draws its weights from its own Random, 
+// seeded from the given one before any work starts, so a seed gives the same maze on 
+// any number of threads. the join pass opens a single passage between each pair of 
+// tiles it links, which is why tiles are kept large 
+class ParallelKruskal {
+  static int TILE = 256;
+
+  Grid grid;
+  int tileSize;
+  int tileRows;
+  int tileColumns;
+  long[] seeds;
+  Random borderRand;
+  DisjointSet sets;
+  long[][] kept; // the edges each tile opened
+
+  ParallelKruskal(Grid grid, Random rand, int tileSize) {
+    this.grid = grid;
+    this.tileSize = tileSize;
+    this.tileRows = (grid.rows + tileSize - 1) / tileSize;
+    this.tileColumns = (grid.columns + tileSize - 1) / tileSize;
+    this.seeds = new long[this.tileRows * this.tileColumns];
+    for (int t = 0; t < this.seeds.length; t++) {
+      this.seeds[t] = rand.nextLong();
+    }
+    this.borderRand = new Random(rand.nextLong());
+    this.sets = new DisjointSet(grid.size());
+    this.kept = new long[this.seeds.length][];
+  }
+
+  // builds the maze on the given pool and returns how many passages were opened 
+  int generate(ForkJoinPool pool) {
+    pool.invoke(new TileTask(this, 0, this.seeds.length));
+    int opened = 0;
+    for (long[] edges : this.kept) {
+      for (long e : edges) {
+        this.open(e);
+      }
+      opened += edges.length;
+    }
+    for (long e : EdgeList.sortByWeight(this.borderEdges())) {
+      if (this.sets.union(EdgeList.cellOf(e), EdgeList.otherCell(e, this.grid))) {
+        this.open(e);
+        opened++;
+      }
+    }
+    return opened;
+  }
+
+  // runs kruskal's algorithm over the edges inside the given tile. tiles share the 
+  // disjoint-set arrays but never touch each other's cells 
+  void runTile(int tile) {
+    int row0 = tile / this.tileColumns * this.tileSize;
+    int column0 = tile % this.tileColumns * this.tileSize;
+    int row1 = Math.min(row0 + this.tileSize, this.grid.rows);
+    int column1 = Math.min(column0 + this.tileSize, this.grid.columns);
+    long[] edges = EdgeList.sortedEdges(this.grid, new Random(this.seeds[tile]),
+        row0, row1, column0, column1);
+    long[] opened = new long[(row1 - row0) * (column1 - column0) - 1];
+    int count = 0;
+    for (int i = 0; i < edges.length && count < opened.length; i++) {
+      if (this.sets.union(EdgeList.cellOf(edges[i]), EdgeList.otherCell(edges[i], this.grid))) {
+        opened[count] = edges[i];
+        count++;
+      }
+    }
+    this.kept[tile] = opened;
+  }
+
+  // returns the edges that cross a tile border with random weights, the ones between 
+  // rows first and then the ones within rows 
+  long[] borderEdges() {
+    int down = (this.tileRows - 1) * this.grid.columns;
+    int right = (this.tileColumns - 1) * this.grid.rows;
+    long[] edges = new long[down + right];
+    int k = 0;
+    for (int i = this.tileSize - 1; i < this.grid.rows - 1; i += this.tileSize) {
+      for (int j = 0; j < this.grid.columns; j++) {
+        edges[k++] = EdgeList.pack(this.grid.index(i, j), Grid.DOWN,
+            this.borderRand.nextInt(EdgeList.MAX_WEIGHT));
+      }
+    }
+    for (int i = 0; i < this.grid.rows; i++) {
+      for (int j = this.tileSize - 1; j < this.grid.columns - 1; j += this.tileSize) {
+        edges[k++] = EdgeList.pack(this.grid.index(i, j), Grid.RIGHT,
+            this.borderRand.nextInt(EdgeList.MAX_WEIGHT));
+      }
+    }
+    return edges;
+  }
+
+  // opens the passage of the given edge in the grid 
+  void open(long edge) {
+    int cell = EdgeList.cellOf(edge);
+    this.grid.setBits(cell, this.grid.bits(cell) | EdgeList.directionOf(edge));
+  }
+}
+
+// this class represents the work of running the tiles lo to hi - 1 of a ParallelKruskal, 
+// which is split in half until a single tile is left 
+class TileTask extends RecursiveAction {
+  ParallelKruskal generator;
+  int lo;
+  int hi;
+
+  TileTask(ParallelKruskal generator, int lo, int hi) {
+    this.generator = generator;
+    this.lo = lo;
+    this.hi = hi;
+  }
+
+  // runs a single tile or splits the tiles between two new tasks 
+  protected void compute() {
+    if (this.hi - this.lo == 1) {
+      this.generator.runTile(this.lo);
+    }
+    else {
+      int mid = (this.lo + this.hi) >>> 1;
+      ForkJoinTask.invokeAll(new TileTask(this.generator, this.lo, mid),
+          new TileTask(this.generator, mid, this.hi));
+    }
+  }
+}
+
+// this interface represents a way of carving a perfect maze out of a grid with no 
+// passages, so the generators can be swapped for one another 
+interface IMazeGenerator {
+  // opens the passages of a maze in the given grid, making its choices with the given 
+  // random, and returns how many were opened 
+  int generate(Grid grid, Random rand);
+}
+
+// this class generates a maze with kruskal's algorithm, joining the sets of cells along 
+// randomly weighted edges in order of weight. it is fast and gives many short dead ends 
+class KruskalGenerator implements IMazeGenerator {
+  // opens the passages kruskal's algorithm picks from randomly weighted edges 
+  public int generate(Grid grid, Random rand) {
+    return KruskalGenerator.join(grid, EdgeList.sortedEdges(grid, rand));
+  }
+
+  // opens a passage in the given grid for every edge of the given sorted EdgeList that 
+  // joins two separate sets, and returns how many were opened 
+  static int join(Grid grid, long[] edges) {
+    GenerationEvent event = new GenerationEvent();
+    event.begin();
+    DisjointSet representatives = new DisjointSet(grid.size());
+    int kept = 0;
+    int i = 0;
+
+    for (; i < edges.length && kept < grid.size() - 1; i++) {
+      int cell = EdgeList.cellOf(edges[i]);
+      if (representatives.union(cell, EdgeList.otherCell(edges[i], grid))) {
+        grid.setBits(cell, grid.bits(cell) | EdgeList.directionOf(edges[i]));
+        kept++;
+      }
+    }
+    MazeMetrics.generated(event, "kruskal", grid.size(), i, representatives.finds, kept);
+    return kept;
+  }
+}
+
+// this class generates a maze with kruskal's algorithm in tiles across the common pool 
+class ParallelKruskalGenerator implements IMazeGenerator {
+  // opens the passages a ParallelKruskal picks 
+  public int generate(Grid grid, Random rand) {
+    return new ParallelKruskal(grid, rand, ParallelKruskal.TILE)
+        .generate(ForkJoinPool.commonPool());
+  }
+}
+
+// this class generates a maze one row at a time with eller's algorithm 
+class EllerGridGenerator implements IMazeGenerator {
+  // opens the passages of every row an EllerGenerator makes 
+  public int generate(Grid grid, Random rand) {
+    new EllerGenerator(grid.rows, grid.columns, rand).generate(new GridSink(grid));
+    return grid.size() - 1;
+  }
+}
+
+// this class generates a maze with randomized prim's algorithm, growing the maze out of 
+// the first cell by always opening the wall with the smallest random weight along its 
+// edge. the walls waiting to be opened are kept in a CellHeap keyed by their weight, 
+// with the cell they lead from in the low bits. it gives many short dead ends that 
+// branch out from the first cell 
+class PrimGenerator implements IMazeGenerator {
+  // opens the passages prim's algorithm picks 
+  public int generate(Grid grid, Random rand) {
+    GenerationEvent event = new GenerationEvent();
+    event.begin();
+    long[] inMaze = new long[(grid.size() + 63) >>> 6];
+    CellHeap walls = new CellHeap(64);
+    int[] adjacent = new int[4];
+    int opened = 0;
+    long pushed = 0;
+    inMaze[0] |= 1L;
+    int count = grid.adjacent(0, adjacent);
+    for (int i = 0; i < count; i++) {
+      walls.add(adjacent[i], (long) rand.nextInt(Integer.MAX_VALUE) << 32);
+      pushed++;
+    }
+
+    while (!walls.empty() && opened < grid.size() - 1) {
+      int from = (int) walls.minKey();
+      int cell = walls.remove();
+      if ((inMaze[cell >>> 6] & (1L << cell)) != 0) {
+        continue; // the wall of a cell that has joined the maze since
+      }
+      inMaze[cell >>> 6] |= 1L << cell;
+      grid.open(from, cell);
+      opened++;
+      count = grid.adjacent(cell, adjacent);
+      for (int i = 0; i < count; i++) {
+        if ((inMaze[adjacent[i] >>> 6] & (1L << adjacent[i])) == 0) {
+          walls.add(adjacent[i], (long) rand.nextInt(Integer.MAX_VALUE) << 32 | cell);
+          pushed++;
+        }
+      }
+    }
+    MazeMetrics.generated(event, "prim", grid.size(), pushed, opened);
+    return opened;
+  }
+}
+
+// this class generates a maze with wilson's algorithm. from every cell not yet in the 
+// maze it walks at random until it hits the maze, remembering only the last way out of 
+// each cell it passes, which erases the loops of the walk, then opens the path that is 
+// left. every maze is as likely as any other, with no bias in its texture, but the 
+// first walks can wander for a long time before the maze is big enough to hit 
+class WilsonGenerator implements IMazeGenerator {
+  // opens the passages of the loop-erased walks of wilson's algorithm 
+  public int generate(Grid grid, Random rand) {
+    GenerationEvent event = new GenerationEvent();
+    event.begin();
+    long[] inMaze = new long[(grid.size() + 63) >>> 6];
+    int[] exits = new int[grid.size()]; // the last way out of each cell of the walk
+    int[] adjacent = new int[4];
+    int opened = 0;
+    long steps = 0;
+    int root = rand.nextInt(grid.size());
+    inMaze[root >>> 6] |= 1L << root;
+
+    for (int start = 0; start < grid.size(); start++) {
+      int cell = start;
+      while ((inMaze[cell >>> 6] & (1L << cell)) == 0) {
+        int count = grid.adjacent(cell, adjacent);
+        exits[cell] = adjacent[rand.nextInt(count)];
+        cell = exits[cell];
+        steps++;
+      }
+      for (cell = start; (inMaze[cell >>> 6] & (1L << cell)) == 0; cell = exits[cell]) {
+        inMaze[cell >>> 6] |= 1L << cell;
+        grid.open(cell, exits[cell]);
+        opened++;
+      }
+    }
+    MazeMetrics.generated(event, "wilson", grid.size(), steps, opened);
+    return opened;
+  }
+}
+
+// this class generates a maze with the recursive backtracker, walking to a random cell 
+// not yet in the maze until there is none, then backing up to the last cell that has 
+// one. the cells walked are kept on an explicit stack instead of the call stack, so any 
+// size of maze is fine. it gives long winding corridors with few dead ends 
+class BacktrackerGenerator implements IMazeGenerator {
+  // opens the passages of the walk of the backtracker 
+  public int generate(Grid grid, Random rand) {
+    GenerationEvent event = new GenerationEvent();
+    event.begin();
+    long[] inMaze = new long[(grid.size() + 63) >>> 6];
+    int[] stack = new int[grid.size()];
+    int[] adjacent = new int[4];
+    int[] choices = new int[4];
+    int size = 0;
+    int opened = 0;
+    long looked = 0;
+    stack[size++] = 0;
+    inMaze[0] |= 1L;
+
+    while (size > 0) {
+      int cell = stack[size - 1];
+      int count = grid.adjacent(cell, adjacent);
+      looked += count;
+      int free = 0;
+      for (int i = 0; i < count; i++) {
+        if ((inMaze[adjacent[i] >>> 6] & (1L << adjacent[i])) == 0) {
+          choices[free++] = adjacent[i];
+        }
+      }
+      if (free == 0) {
+        size--;
+      }
+      else {
+        int next = choices[rand.nextInt(free)];
+        inMaze[next >>> 6] |= 1L << next;
+        grid.open(cell, next);
+        opened++;
+        stack[size++] = next;
+      }
+    }
+    MazeMetrics.generated(event, "backtracker", grid.size(), looked, opened);
+    return opened;
+  }
+}
+
+// this class runs a breadth first search over a grid that expands each level of the 
+// frontier across a ForkJoinPool, in chunks of chunkSize cells. every new cell is first 
+// claimed by the earliest frontier cell next to it, then added by that cell, so the 
+// search order and parents are the same as a QueueCollection search would give. the 
+// levels are laid out one after another in order, which is also the search history 
+class ParallelBreadthFirstSearch {
+  Grid grid;
+  int chunkSize;
+  AtomicLongArray visited;
+  AtomicIntegerArray claims; // the frontier position of the cell that claimed each cell
+  int[] backtrack;
+  int[] order;
+  int levelStart; // where the frontier starts in order
+  int levelEnd; // where the frontier ends in order
+  int[][] found; // the cells each chunk added to the next level
+  int[] foundSize;
+
+  ParallelBreadthFirstSearch(Grid grid, int chunkSize) {
+    this.grid = grid;
+    this.chunkSize = chunkSize;
+    this.visited = new AtomicLongArray((grid.size() + 63) >>> 6);
+    this.claims = new AtomicIntegerArray(grid.size());
+    this.backtrack = new int[grid.size()];
+    this.order = new int[grid.size()];
+    this.found = new int[0][];
+    this.foundSize = new int[0];
+  }
+
+  // searches from the first cell to the last cell on the given pool and records the 
+  // result in the given utils, returning true if the last cell was found 
+  boolean search(Graph graph, Utils utils, ForkJoinPool pool) {
+    int cell1 = 0;
+    int cell2 = this.grid.size() - 1;
+    for (int i = 0; i < this.grid.size(); i++) {
+      this.claims.set(i, Integer.MAX_VALUE);
+    }
+    this.order[0] = cell1;
+    this.visited.set(cell1 >>> 6, 1L << cell1);
+    this.levelStart = 0;
+    this.levelEnd = 1;
+
+    while (this.levelStart < this.levelEnd) {
+      for (int i = this.levelStart; i < this.levelEnd; i++) {
+        if (this.order[i] == cell2) {
+          utils.record(graph, this.order, i, this.backtrack);
+          return true;
+        }
+      }
+      int chunks = (this.levelEnd - this.levelStart + this.chunkSize - 1) / this.chunkSize;
+      if (this.found.length < chunks) {
+        this.found = Arrays.copyOf(this.found, chunks);
+        this.foundSize = new int[chunks];
+      }
+      if (chunks == 1) {
+        this.claimChunk(0);
+        this.addChunk(0);
+      }
+      else {
+        pool.invoke(new LevelTask(this, true, 0, chunks));
+        pool.invoke(new LevelTask(this, false, 0, chunks));
+      }
+      int next = this.levelEnd;
+      for (int c = 0; c < chunks; c++) {
+        System.arraycopy(this.found[c], 0, this.order, next, this.foundSize[c]);
+        next += this.foundSize[c];
+      }
+      this.levelStart = this.levelEnd;
+      this.levelEnd = next;
+    }
+    utils.record(graph, this.order, this.levelEnd, new int[0]);
+    return false;
+  }
+
+  // lets every frontier cell in the given chunk claim its unvisited neighbors, where the 
+  // lowest frontier position wins 
+  void claimChunk(int chunk) {
+    int[] neighbors = new int[4];
+    int end = Math.min(this.levelStart + (chunk + 1) * this.chunkSize, this.levelEnd);
+    for (int p = this.levelStart + chunk * this.chunkSize; p < end; p++) {
+      int count = this.grid.neighbors(this.order[p], neighbors);
+      for (int i = 0; i < count; i++) {
+        int neighbor = neighbors[i];
+        if ((this.visited.get(neighbor >>> 6) & (1L << neighbor)) == 0) {
+          int claim = this.claims.get(neighbor);
+          while (p < claim && !this.claims.compareAndSet(neighbor, claim, p)) {
+            claim = this.claims.get(neighbor);
+          }
+        }
+      }
+    }
+  }
+
+  // adds the neighbors that the frontier cells in the given chunk claimed to this 
+  // chunk's part of the next level, in the order a queue would have added them 
+  void addChunk(int chunk) {
+    int[] neighbors = new int[4];
+    int start = this.levelStart + chunk * this.chunkSize;
+    int end = Math.min(start + this.chunkSize, this.levelEnd);
+    if (this.found[chunk] == null) {
+      this.found[chunk] = new int[3 * this.chunkSize + 1];
+    }
+    int size = 0;
+    for (int p = start; p < end; p++) {
+      int count = this.grid.neighbors(this.order[p], neighbors);
+      for (int i = 0; i < count; i++) {
+        int neighbor = neighbors[i];
+        if (this.claims.get(neighbor) == p
+            && (this.visited.get(neighbor >>> 6) & (1L << neighbor)) == 0) {
+          long word = this.visited.get(neighbor >>> 6);
+          while (!this.visited.compareAndSet(neighbor >>> 6, word, word | (1L << neighbor))) {
+            word = this.visited.get(neighbor >>> 6);
+          }
+          this.backtrack[neighbor] = this.order[p];
+          this.found[chunk][size] = neighbor;
+          size++;
+        }
+      }
+    }
+    this.foundSize[chunk] = size;
+  }
+}
+
+// this class represents the work of claiming or adding the chunks lo to hi - 1 of a 
+// level of a ParallelBreadthFirstSearch, which is split in half until one chunk is left 
+class LevelTask extends RecursiveAction {
+  ParallelBreadthFirstSearch search;
+  boolean claiming;
+  int lo;
+  int hi;
+
+  LevelTask(ParallelBreadthFirstSearch search, boolean claiming, int lo, int hi) {
+    this.search = search;
+    this.claiming = claiming;
+    this.lo = lo;
+    this.hi = hi;
+  }
+
+  // runs a single chunk or splits the chunks between two new tasks 
+  protected void compute() {
+    if (this.hi - this.lo == 1 && this.claiming) {
+      this.search.claimChunk(this.lo);
+    }
+    else if (this.hi - this.lo == 1) {
+      this.search.addChunk(this.lo);
+    }
+    else {
+      int mid = (this.lo + this.hi) >>> 1;
+      ForkJoinTask.invokeAll(new LevelTask(this.search, this.claiming, this.lo, mid),
+          new LevelTask(this.search, this.claiming, mid, this.hi));
+    }
+  }
+}
+
+// this class indexes a maze as a tree rooted at the first cell, so the distance and path 
+// between any two cells come back without a search. every cell keeps its parent, its 
+// depth and a jump to a farther ancestor, set up in the skew-binary way so that any 
+// ancestor is O(log n) jumps away while using one int per cell instead of a binary 
+// lifting table's one per level. the tree is the breadth first tree of the grid, which 
+// for a perfect maze is the maze itself. cells the first cell cannot reach have depth -1 
+class TreeIndex {
+  Grid grid;
+  int[] parent;
+  int[] depth;
+  int[] jump;
+
+  TreeIndex(Grid grid) {
+    this.grid = grid;
+    this.parent = new int[grid.size()];
+    this.depth = new int[grid.size()];
+    this.jump = new int[grid.size()];
+    Arrays.fill(this.depth, -1);
+
+    QueueCollection queue = new QueueCollection(grid.size());
+    int[] neighbors = new int[4];
+    this.depth[0] = 0;
+    queue.add(0);
+    while (!queue.empty()) {
+      int next = queue.remove();
+      int count = grid.neighbors(next, neighbors);
+      for (int i = 0; i < count; i++) {
+        int child = neighbors[i];
+        if (this.depth[child] < 0) {
+          this.depth[child] = this.depth[next] + 1;
+          this.parent[child] = next;
+          int up = this.jump[next];
+          if (this.depth[next] - this.depth[up] == this.depth[up] - this.depth[this.jump[up]]) {
+            this.jump[child] = this.jump[up];
+          }
+          else {
+            this.jump[child] = next;
+          }
+          queue.add(child);
+        }
+      }
+    }
+  }
+
+  // returns the ancestor of the given cell at the given depth 
+  int ancestor(int cell, int depth) {
+    while (this.depth[cell] > depth) {
+      if (this.depth[this.jump[cell]] >= depth) {
+        cell = this.jump[cell];
+      }
+      else {
+        cell = this.parent[cell];
+      }
+    }
+    return cell;
+  }
+
+  // returns the deepest cell that is an ancestor of both given cells 
+  int commonAncestor(int cell1, int cell2) {
+    cell1 = this.ancestor(cell1, this.depth[cell2]);
+    cell2 = this.ancestor(cell2, this.depth[cell1]);
+    while (cell1 != cell2) {
+      // cells at the same depth have jumps to the same depth
+      if (this.jump[cell1] != this.jump[cell2]) {
+        cell1 = this.jump[cell1];
+        cell2 = this.jump[cell2];
+      }
+      else {
+        cell1 = this.parent[cell1];
+        cell2 = this.parent[cell2];
+      }
+    }
+    return cell1;
+  }
+
+  // returns how many steps apart the two given cells are, or -1 if they are not 
+  // connected 
+  int distance(int cell1, int cell2) {
+    if (this.depth[cell1] < 0 || this.depth[cell2] < 0) {
+      return -1;
+    }
+    return this.depth[cell1] + this.depth[cell2]
+        - 2 * this.depth[this.commonAncestor(cell1, cell2)];
+  }
+
+  // returns the cells on the path from the first given cell to the second, or an empty 
+  // array if they are not connected 
+  int[] path(int cell1, int cell2) {
+    int length = this.distance(cell1, cell2);
+    if (length < 0) {
+      return new int[0];
+    }
+    int[] path = new int[length + 1];
+    int top = this.commonAncestor(cell1, cell2);
+    int i = 0;
+    for (int cell = cell1; cell != top; cell = this.parent[cell]) {
+      path[i++] = cell;
+    }
+    int j = length;
+    for (int cell = cell2; cell != top; cell = this.parent[cell]) {
+      path[j--] = cell;
+    }
+    path[i] = top;
+    return path;
+  }
+}
+
+// this class contracts a grid into the graph of its junctions and dead ends, the nodes, 
+// joined by its corridors, the edges, each as long as the number of steps along it. a 
+// maze made by kruskal's algorithm is mostly corridors of cells with two passages, so 
+// searching the nodes with dijkstra's algorithm expands fewer cells than searching 
+// every cell, and the corridors on the way are walked again only to give the cells of 
+// the path. the lengths are small ints, so the search keeps its nodes in buckets by 
+// distance instead of a heap, and it never goes into a dead end that is not the end. 
+// the edges of every node are kept one after another, starting at firsts[node], in the 
+// arrays targets, lengths and steps. a loop of corridor cells with no junction gets one 
+// of its cells made a node so that every cell can be reached 
+class CorridorGraph {
+  Grid grid;
+  int[] nodeOf; // the node of each cell, or -1 for a cell in a corridor
+  int[] cells; // the cell of each node
+  int nodes;
+  int[] firsts;
+  int[] targets; // the node at the far end of each edge
+  int[] lengths; // the number of steps along each edge
+  int[] steps; // the first cell along each edge
+  int[] history; // the cells of the nodes expanded by the last search, in order
+  int expanded; // how many nodes the last search expanded
+  int[] around = new int[4];
+
+  // what a search knows of each node, which is current only when its stamp is the 
+  // number of the search 
+  int[] stamps;
+  int[] distances;
+  int[] parentEdges;
+  int[] parentNodes;
+  int query;
+  BucketQueue open; // the nodes waiting to be expanded
+
+  CorridorGraph(Grid grid) {
+    this.grid = grid;
+    this.nodeOf = new int[grid.size()];
+    this.cells = new int[16];
+    int[] neighbors = new int[4];
+    int edges = 0;
+    for (int cell = 0; cell < grid.size(); cell++) {
+      int count = grid.neighbors(cell, neighbors);
+      this.nodeOf[cell] = -1;
+      if (count != 2) {
+        this.addNode(cell);
+        edges += count;
+      }
+    }
+
+    // walks every corridor out of a node, so any corridor cell left over is on a loop 
+    long[] walked = new long[(grid.size() + 63) >>> 6];
+    for (int node = 0; node < this.nodes; node++) {
+      int count = grid.neighbors(this.cells[node], neighbors);
+      for (int i = 0; i < count; i++) {
+        this.walk(this.cells[node], neighbors[i], walked);
+      }
+    }
+    for (int cell = 0; cell < grid.size(); cell++) {
+      if (this.nodeOf[cell] < 0 && (walked[cell >>> 6] & (1L << cell)) == 0) {
+        this.addNode(cell);
+        edges += 2;
+        grid.neighbors(cell, neighbors);
+        this.walk(cell, neighbors[0], walked);
+      }
+    }
+
+    this.firsts = new int[this.nodes + 1];
+    this.targets = new int[edges];
+    this.lengths = new int[edges];
+    this.steps = new int[edges];
+    int edge = 0;
+    for (int node = 0; node < this.nodes; node++) {
+      this.firsts[node] = edge;
+      int count = grid.neighbors(this.cells[node], neighbors);
+      for (int i = 0; i < count; i++) {
+        int previous = this.cells[node];
+        int cell = neighbors[i];
+        int length = 1;
+        while (this.nodeOf[cell] < 0) {
+          int next = this.follow(previous, cell);
+          previous = cell;
+          cell = next;
+          length++;
+        }
+        this.targets[edge] = this.nodeOf[cell];
+        this.lengths[edge] = length;
+        this.steps[edge] = neighbors[i];
+        edge++;
+      }
+    }
+    this.firsts[this.nodes] = edge;
+    int longest = 0;
+    for (int length : this.lengths) {
+      longest = Math.max(longest, length);
+    }
+    this.history = new int[this.nodes];
+    this.stamps = new int[this.nodes];
+    this.distances = new int[this.nodes];
+    this.parentEdges = new int[this.nodes];
+    this.parentNodes = new int[this.nodes];
+    this.open = new BucketQueue(longest);
+  }
+
+  // makes the given cell a node 
+  void addNode(int cell) {
+    if (this.nodes == this.cells.length) {
+      this.cells = Arrays.copyOf(this.cells, this.nodes * 2);
+    }
+    this.nodeOf[cell] = this.nodes;
+    this.cells[this.nodes] = cell;
+    this.nodes++;
+  }
+
+  // marks the cells of the corridor that leaves the given cell for the given first cell 
+  // as walked, up to the node at its far end 
+  void walk(int previous, int cell, long[] walked) {
+    while (this.nodeOf[cell] < 0 && (walked[cell >>> 6] & (1L << cell)) == 0) {
+      walked[cell >>> 6] |= 1L << cell;
+      int next = this.follow(previous, cell);
+      previous = cell;
+      cell = next;
+    }
+  }
+
+  // returns the cell that comes after the given corridor cell when it is entered from 
+  // the given previous cell 
+  int follow(int previous, int cell) {
+    this.grid.neighbors(cell, this.around);
+    return this.around[0] == previous ? this.around[1] : this.around[0];
+  }
+
+  // returns the cells on a shortest path from the first given cell to the second, or 
+  // an empty array if they are not connected. a cell in a corridor starts or ends at 
+  // the nodes on either side of it, unless both cells are in the same corridor 
+  int[] path(int start, int end) {
+    this.expanded = 0;
+    if (start == end) {
+      return new int[] {start};
+    }
+    int[] neighbors = new int[4];
+    int best = Integer.MAX_VALUE;
+    int direct = -1; // the first cell of a walk straight from start to end, if any
+
+    // the nodes the search starts at, how far they are from start and the way there 
+    int[] sourceNodes = new int[2];
+    int[] sourceLengths = new int[2];
+    int[] sourceSteps = new int[2];
+    int sources = 0;
+    if (this.nodeOf[start] >= 0) {
+      sourceNodes[sources++] = this.nodeOf[start];
+    }
+    else {
+      this.grid.neighbors(start, neighbors);
+      for (int i = 0; i < 2; i++) {
+        int previous = start;
+        int cell = neighbors[i];
+        int length = 1;
+        while (this.nodeOf[cell] < 0 && cell != end) {
+          int next = this.follow(previous, cell);
+          previous = cell;
+          cell = next;
+          length++;
+        }
+        if (cell == end && length < best) {
+          best = length;
+          direct = neighbors[i];
+        }
+        else if (cell != end) {
+          sourceNodes[sources] = this.nodeOf[cell];
+          sourceLengths[sources] = length;
+          sourceSteps[sources++] = neighbors[i];
+        }
+      }
+    }
+
+    // the nodes the search can end at, how far end is from them and the way back 
+    int[] targetNodes = new int[] {-1, -1};
+    int[] targetLengths = new int[2];
+    int[] targetSteps = new int[2];
+    if (this.nodeOf[end] >= 0) {
+      targetNodes[0] = this.nodeOf[end];
+    }
+    else {
+      this.grid.neighbors(end, neighbors);
+      for (int i = 0; i < 2; i++) {
+        int previous = end;
+        int cell = neighbors[i];
+        int length = 1;
+        while (this.nodeOf[cell] < 0) {
+          int next = this.follow(previous, cell);
+          previous = cell;
+          cell = next;
+          length++;
+        }
+        targetNodes[i] = this.nodeOf[cell];
+        targetLengths[i] = length;
+        targetSteps[i] = neighbors[i];
+      }
+    }
+
+    this.query++;
+    if (this.query == 0) {
+      Arrays.fill(this.stamps, 0); // every old stamp would look current again
+      this.query = 1;
+    }
+    this.open.clear();
+    for (int i = 0; i < sources; i++) {
+      int node = sourceNodes[i];
+      if (this.stamps[node] != this.query || sourceLengths[i] < this.distances[node]) {
+        this.stamps[node] = this.query;
+        this.distances[node] = sourceLengths[i];
+        this.parentEdges[node] = -1 - i; // which source, as a negative edge
+        this.open.add(node, sourceLengths[i]);
+      }
+    }
+    int bestNode = -1;
+    int bestTarget = -1;
+    while (!this.open.empty()) {
+      int node = this.open.remove();
+      int distance = this.open.distance;
+      if (distance >= best) {
+        break;
+      }
+      if (this.distances[node] != distance) {
+        continue; // a stale entry for a node that was reached sooner since
+      }
+      this.history[this.expanded++] = this.cells[node];
+      for (int i = 0; i < 2; i++) {
+        if (targetNodes[i] == node && distance + targetLengths[i] < best) {
+          best = distance + targetLengths[i];
+          bestNode = node;
+          bestTarget = i;
+        }
+      }
+      for (int edge = this.firsts[node]; edge < this.firsts[node + 1]; edge++) {
+        int target = this.targets[edge];
+        if (this.firsts[target + 1] - this.firsts[target] == 1 && target != targetNodes[0]
+            && target != targetNodes[1]) {
+          continue; // a dead end leads nowhere else
+        }
+        int reached = distance + this.lengths[edge];
+        if (this.stamps[target] != this.query || reached < this.distances[target]) {
+          this.stamps[target] = this.query;
+          this.distances[target] = reached;
+          this.parentEdges[target] = edge;
+          this.parentNodes[target] = node;
+          this.open.add(target, reached);
+        }
+      }
+    }
+
+    if (best == Integer.MAX_VALUE) {
+      return new int[0];
+    }
+    int[] path = new int[best + 1];
+    if (bestNode < 0) {
+      this.trace(path, 0, 1, start, direct, best);
+      return path;
+    }
+    int at = best - targetLengths[bestTarget];
+    this.trace(path, best, -1, end, targetSteps[bestTarget], targetLengths[bestTarget]);
+    int node = bestNode;
+    while (this.parentEdges[node] >= 0) {
+      int edge = this.parentEdges[node];
+      at -= this.lengths[edge];
+      this.trace(path, at, 1, this.cells[this.parentNodes[node]], this.steps[edge],
+          this.lengths[edge]);
+      node = this.parentNodes[node];
+    }
+    int source = -1 - this.parentEdges[node];
+    this.trace(path, 0, 1, start, sourceSteps[source], sourceLengths[source]);
+    return path;
+  }
+
+  // writes the given cell and the given number of cells after it, starting with the given 
+  // first cell and following the corridor, into the given path from the given place on, 
+  // going forward or backward through the path by the given direction 
+  void trace(int[] path, int at, int direction, int from, int first, int length) {
+    path[at] = from;
+    int previous = from;
+    int cell = first;
+    for (int i = 1; i <= length; i++) {
+      path[at + direction * i] = cell;
+      if (i < length) {
+        int next = this.follow(previous, cell);
+        previous = cell;
+        cell = next;
+      }
+    }
+  }
+}
+
+// this class keeps a shortest path from a start cell to a goal cell of a graph whose 
+// walls change, with lifelong planning A*. every cell keeps g, its distance from start 
+// when it was last expanded, and rhs, the distance the g of its neighbors gives it. 
+// only the cells where the two differ wait in the heap, so after a wall changes only 
+// the cells whose distance it changed are expanded again. the heap has no way to 
+// change a key, so the current key of every cell is kept beside it and any entry with 
+// another key is skipped when it comes up. keys are the estimate of the whole path in 
+// the high half and the distance from start in the low half 
+class LifelongPlanner {
+  static int INFINITE = Integer.MAX_VALUE / 2;
+
+  Graph graph;
+  int start;
+  int goal;
+  int[] g;
+  int[] rhs;
+  long[] keys; // the key each cell waits in the heap with, or -1 if it is not waiting
+  CellHeap open = new CellHeap(64);
+  int[] history = new int[64]; // the cells expanded by the last plan, in order
+  int expanded; // how many cells the last plan expanded
+  int[] neighbors = new int[4]; // the neighbors of the cell being updated
+  int[] around = new int[4]; // the neighbors of the cell being expanded
+
+  LifelongPlanner(Graph graph, int start, int goal) {
+    this.graph = graph;
+    this.start = start;
+    this.goal = goal;
+    this.g = new int[graph.grid.size()];
+    this.rhs = new int[graph.grid.size()];
+    this.keys = new long[graph.grid.size()];
+    Arrays.fill(this.g, LifelongPlanner.INFINITE);
+    Arrays.fill(this.rhs, LifelongPlanner.INFINITE);
+    Arrays.fill(this.keys, -1);
+    this.rhs[start] = 0;
+    this.keys[start] = this.key(start);
+    this.open.add(start, this.keys[start]);
+  }
+
+  // returns the number of steps from the given cell to the goal with no walls, which 
+  // no path costs less than since every step costs at least 1 
+  int heuristic(int cell) {
+    Grid grid = this.graph.grid;
+    return Math.abs(grid.rowOf(cell) - grid.rowOf(this.goal))
+        + Math.abs(grid.columnOf(cell) - grid.columnOf(this.goal));
+  }
+
+  // returns the key of the given cell 
+  long key(int cell) {
+    long distance = Math.min(this.g[cell], this.rhs[cell]);
+    return (distance + this.heuristic(cell)) << 32 | distance;
+  }
+
+  // works out the rhs of the given cell again and puts it in the heap if it no longer 
+  // matches its g 
+  void update(int cell) {
+    if (cell != this.start) {
+      int best = LifelongPlanner.INFINITE;
+      int count = this.graph.grid.neighbors(cell, this.neighbors);
+      for (int i = 0; i < count; i++) {
+        best = Math.min(best, this.g[this.neighbors[i]]
+            + this.graph.cost(this.neighbors[i], cell));
+      }
+      this.rhs[cell] = best;
+    }
+    if (this.g[cell] == this.rhs[cell]) {
+      this.keys[cell] = -1;
+    }
+    else if (this.keys[cell] != this.key(cell)) {
+      this.keys[cell] = this.key(cell);
+      this.open.add(cell, this.keys[cell]);
+    }
+  }
+
+  // tells this planner that the wall between the given cells was opened or closed 
+  void wallChanged(int cell1, int cell2) {
+    this.update(cell1);
+    this.update(cell2);
+  }
+
+  // returns the smallest key of a cell still waiting in the heap, throwing away the 
+  // stale entries above it 
+  long topKey() {
+    while (!this.open.empty() && this.keys[this.open.cells[0]] != this.open.minKey()) {
+      this.open.remove();
+    }
+    return this.open.empty() ? Long.MAX_VALUE : this.open.minKey();
+  }
+
+  // expands cells until the distance of the goal is known again and returns true if 
+  // the goal can be reached 
+  boolean plan() {
+    this.expanded = 0;
+    while (this.topKey() < this.key(this.goal) || this.rhs[this.goal] != this.g[this.goal]) {
+      int cell = this.open.remove();
+      this.keys[cell] = -1;
+      if (this.expanded == this.history.length) {
+        this.history = Arrays.copyOf(this.history, this.expanded * 2);
+      }
+      this.history[this.expanded++] = cell;
+      if (this.g[cell] > this.rhs[cell]) {
+        this.g[cell] = this.rhs[cell];
+      }
+      else {
+        this.g[cell] = LifelongPlanner.INFINITE;
+        this.update(cell);
+      }
+      int count = this.graph.grid.neighbors(cell, this.around);
+      for (int i = 0; i < count; i++) {
+        this.update(this.around[i]);
+      }
+    }
+    return this.g[this.goal] < LifelongPlanner.INFINITE;
+  }
+
+  // returns the cells on the path from start to goal as of the last plan, or an empty 
+  // array if there is none, by stepping back from the goal to the neighbor that got 
+  // there cheapest 
+  int[] path() {
+    if (this.g[this.goal] >= LifelongPlanner.INFINITE) {
+      return new int[0];
+    }
+    int[] path = new int[64];
+    int length = 0;
+    path[length++] = this.goal;
+    for (int cell = this.goal; cell != this.start;) {
+      int best = -1;
+      long bestDistance = Long.MAX_VALUE;
+      int count = this.graph.grid.neighbors(cell, this.neighbors);
+      for (int i = 0; i < count; i++) {
+        long distance = (long) this.g[this.neighbors[i]]
+            + this.graph.cost(this.neighbors[i], cell);
+        if (distance < bestDistance) {
+          best = this.neighbors[i];
+          bestDistance = distance;
+        }
+      }
+      cell = best;
+      if (length == path.length) {
+        path = Arrays.copyOf(path, length * 2);
+      }
+      path[length++] = cell;
+    }
+    int[] forward = new int[length];
+    for (int i = 0; i < length; i++) {
+      forward[i] = path[length - 1 - i];
+    }
+    return forward;
+  }
+}
+
+// this class floods a grid breadth first 64 cells at a time. the cells are laid out one 
+// bit each in long words, every row starting on a new word, and the passages are kept 
+// the same way in two masks, right and down. a step of the flood moves every cell of 
+// a frontier word through the passages with shifts and masks, so a whole word of cells 
+// takes a few instructions. only the words with frontier cells in them are stepped, 
+// which keeps a winding frontier cheap. the flood answers how far every cell is and 
+// which cells are within some number of steps, and a fill with no steps to count 
+// answers whether a cell can be reached 
+class BitFlood {
+  Grid grid;
+  int words; // the number of words of each row
+  long[] right; // the cells with a passage to the cell after them
+  long[] down; // the cells with a passage to the cell below them
+  int steps; // how many steps from the start the farthest cell of the last flood is
+
+  BitFlood(Grid grid) {
+    this.grid = grid;
+    this.words = (grid.columns + 63) >>> 6;
+    this.right = new long[grid.rows * this.words];
+    this.down = new long[grid.rows * this.words];
+    for (int cell = 0; cell < grid.size(); cell++) {
+      int bits = grid.bits(cell);
+      if (bits != 0) {
+        int word = this.wordOf(cell);
+        long bit = 1L << grid.columnOf(cell);
+        if ((bits & Grid.RIGHT) != 0 && grid.columnOf(cell) < grid.columns - 1) {
+          this.right[word] |= bit;
+        }
+        if ((bits & Grid.DOWN) != 0 && grid.rowOf(cell) < grid.rows - 1) {
+          this.down[word] |= bit;
+        }
+      }
+    }
+  }
+
+  // returns the word the given cell is in 
+  int wordOf(int cell) {
+    return this.grid.rowOf(cell) * this.words + (this.grid.columnOf(cell) >>> 6);
+  }
+
+  // checks if the given cell is in the given board of cells 
+  boolean contains(long[] board, int cell) {
+    return (board[this.wordOf(cell)] & (1L << this.grid.columnOf(cell))) != 0;
+  }
+
+  // returns how many cells are in the given board of cells 
+  int count(long[] board) {
+    int count = 0;
+    for (long word : board) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  // checks if the second given cell can be reached from the first 
+  boolean reachable(int start, int end) {
+    return this.contains(this.fill(start, end), end);
+  }
+
+  // returns the board of the cells that can be reached from the given start, stopping 
+  // early once the given end is reached if it is not -1. with no distances to keep, a 
+  // word is filled along its row as far as it goes at once, and any word it spills into 
+  // waits on a stack until it is filled in turn, in no particular order 
+  long[] fill(int start, int end) {
+    long[] visited = new long[this.right.length];
+    int[] stack = new int[16];
+    int size = 0;
+    int endWord = end < 0 ? -1 : this.wordOf(end);
+    long endBit = end < 0 ? 0 : 1L << this.grid.columnOf(end);
+    int first = this.wordOf(start);
+    visited[first] = 1L << this.grid.columnOf(start);
+    stack[size++] = first;
+
+    while (size > 0 && (visited[endWord < 0 ? 0 : endWord] & endBit) == 0) {
+      int word = stack[--size];
+      long right = this.right[word];
+      long cells = visited[word];
+      long grown = cells | ((cells & right) << 1) | ((cells >>> 1) & right);
+      while (grown != cells) {
+        cells = grown;
+        grown = cells | ((cells & right) << 1) | ((cells >>> 1) & right);
+      }
+      visited[word] = cells;
+      if (size + 4 > stack.length) {
+        stack = Arrays.copyOf(stack, stack.length * 2);
+      }
+      int column = word % this.words;
+      if (cells < 0 && (right & (1L << 63)) != 0 && column + 1 < this.words
+          && (visited[word + 1] & 1L) == 0) {
+        visited[word + 1] |= 1L;
+        stack[size++] = word + 1;
+      }
+      if ((cells & 1) != 0 && column > 0 && this.right[word - 1] < 0 
+          && visited[word - 1] >= 0) {
+        visited[word - 1] |= 1L << 63;
+        stack[size++] = word - 1;
+      }
+      long below = cells & this.down[word] & ~(word + this.words < visited.length 
+          ? visited[word + this.words] : 0);
+      if (below != 0) {
+        visited[word + this.words] |= below;
+        stack[size++] = word + this.words;
+      }
+      if (word >= this.words) {
+        long above = cells & this.down[word - this.words] & ~visited[word - this.words];
+        if (above != 0) {
+          visited[word - this.words] |= above;
+          stack[size++] = word - this.words;
+        }
+      }
+    }
+    return visited;
+  }
+
+  // returns the number of steps from the given cell to every cell, or -1 for the cells 
+  // it cannot reach 
+  int[] distances(int start) {
+    int[] distances = new int[this.grid.size()];
+    this.flood(start, -1, Integer.MAX_VALUE, distances);
+    return distances;
+  }
+
+  // returns the board of the cells at most the given number of steps from the given cell 
+  long[] within(int start, int limit) {
+    return this.flood(start, -1, limit, null);
+  }
+
+  // floods the grid from the given start for at most limit steps, or until the given 
+  // end is reached if it is not -1, and returns the board of the cells reached. the 
+  // step every cell was reached at is written into the given distances if it is not 
+  // null 
+  long[] flood(int start, int end, int limit, int[] distances) {
+    int total = this.right.length;
+    int columns = this.grid.columns;
+    long[] visited = new long[total];
+    long[] frontier = new long[total];
+    int[] active = new int[16]; // the words of the frontier
+    int[] touched = new int[16]; // the words the next frontier may be in
+    int[] stamps = new int[total]; // the step each word was last touched at
+    int activeSize = 0;
+    if (distances != null) {
+      Arrays.fill(distances, -1);
+      distances[start] = 0;
+    }
+    int first = this.wordOf(start);
+    visited[first] = 1L << this.grid.columnOf(start);
+    frontier[first] = visited[first];
+    active[activeSize++] = first;
+    long[] next = new long[total];
+    this.steps = 0;
+
+    while (activeSize > 0 && this.steps < limit
+        && (end < 0 || !this.contains(visited, end))) {
+      this.steps++;
+      int touchedSize = 0;
+      if (touched.length < activeSize * 5) {
+        touched = new int[activeSize * 5];
+      }
+      for (int a = 0; a < activeSize; a++) {
+        int word = active[a];
+        long cells = frontier[word];
+        frontier[word] = 0;
+        int column = word % this.words;
+
+        // across the row, carrying the cells that cross into the next or last word 
+        long moved = cells & this.right[word];
+        next[word] |= (moved << 1) | ((cells >>> 1) & this.right[word]);
+        touchedSize = this.touch(word, touched, touchedSize, stamps);
+        if (moved < 0 && column + 1 < this.words) {
+          next[word + 1] |= 1L;
+          touchedSize = this.touch(word + 1, touched, touchedSize, stamps);
+        }
+        if ((cells & 1) != 0 && column > 0 && this.right[word - 1] < 0) {
+          next[word - 1] |= 1L << 63;
+          touchedSize = this.touch(word - 1, touched, touchedSize, stamps);
+        }
+
+        // up and down the rows 
+        long below = cells & this.down[word];
+        if (below != 0) {
+          next[word + this.words] |= below;
+          touchedSize = this.touch(word + this.words, touched, touchedSize, stamps);
+        }
+        if (word >= this.words) {
+          long above = cells & this.down[word - this.words];
+          if (above != 0) {
+            next[word - this.words] |= above;
+            touchedSize = this.touch(word - this.words, touched, touchedSize, stamps);
+          }
+        }
+      }
+
+      activeSize = 0;
+      if (active.length < touchedSize) {
+        active = new int[touchedSize];
+      }
+      for (int k = 0; k < touchedSize; k++) {
+        int word = touched[k];
+        long fresh = next[word] & ~visited[word];
+        next[word] = 0;
+        if (fresh != 0) {
+          visited[word] |= fresh;
+          frontier[word] = fresh;
+          active[activeSize++] = word;
+          if (distances != null) {
+            int base = (word / this.words) * columns + (word % this.words) * 64;
+            for (long bits = fresh; bits != 0; bits &= bits - 1) {
+              distances[base + Long.numberOfTrailingZeros(bits)] = this.steps;
+            }
+          }
+        }
+      }
+      if (activeSize == 0) {
+        this.steps--; // the last step reached nothing
+      }
+    }
+    return visited;
+  }
+
+  // adds the given word to the given list of touched words unless it is already in it 
+  // for this step, and returns the new size of the list 
+  int touch(int word, int[] touched, int size, int[] stamps) {
+    if (stamps[word] != this.steps) {
+      stamps[word] = this.steps;
+      touched[size++] = word;
+    }
+    return size;
+  }
+}
+
+// this class answers route queries between any two cells of a grid from any number of 
+// threads at once, as long as the grid is not changed while it is used. each query 
+// borrows the buffers of a RouteScratch from a shared pool and gives them back when it 
+// is done, so there are only ever as many sets of buffers as queries running at once 
+class RouteService {
+  static int GRAIN = 16; // the most queries a RouteTask runs without splitting
+  Grid grid;
+  ConcurrentLinkedQueue<RouteScratch> pool = new ConcurrentLinkedQueue<RouteScratch>();
+
+  RouteService(Grid grid) {
+    this.grid = grid;
+  }
+
+  // returns the cells on a shortest path from the first given cell to the second, or 
+  // an empty array if they are not connected 
+  int[] route(int start, int end) {
+    if (start < 0 || start >= this.grid.size() || end < 0 || end >= this.grid.size()) {
+      throw new IllegalArgumentException("Invalid route: " + start + " to " + end);
+    }
+    RouteScratch scratch = this.pool.poll();
+    if (scratch == null) {
+      scratch = new RouteScratch(this.grid.size());
+    }
+    try {
+      return scratch.search(this.grid, start, end);
+    }
+    finally {
+      this.pool.offer(scratch);
+    }
+  }
+
+  // returns the routes from every given start to the end at the same place, solved 
+  // across the given pool 
+  int[][] routes(int[] starts, int[] ends, ForkJoinPool pool) {
+    if (starts.length != ends.length) {
+      throw new IllegalArgumentException("Starts and ends differ in length");
+    }
+    int[][] routes = new int[starts.length][];
+    if (starts.length > 0) {
+      pool.invoke(new RouteTask(this, starts, ends, routes, 0, starts.length));
+    }
+    return routes;
+  }
+}
+
+// this class represents the buffers a single route query searches with. a cell counts 
+// as seen when its stamp is the number of the current query, so the buffers never need 
+// clearing between queries and a query only touches the cells it reaches 
+class RouteScratch {
+  int[] stamps;
+  int[] parents;
+  int[] queue;
+  int query;
+
+  RouteScratch(int size) {
+    this.stamps = new int[size];
+    this.parents = new int[size];
+    this.queue = new int[size];
+  }
+
+  // returns the cells on a shortest path from the first given cell to the second in 
+  // the given grid, or an empty array if they are not connected 
+  int[] search(Grid grid, int start, int end) {
+    this.query++;
+    if (this.query == 0) {
+      Arrays.fill(this.stamps, 0); // every old stamp would look current again
+      this.query = 1;
+    }
+    int[] neighbors = new int[4];
+    int head = 0;
+    int tail = 0;
+    this.queue[tail++] = start;
+    this.stamps[start] = this.query;
+    this.parents[start] = start;
+
+    while (head < tail) {
+      int next = this.queue[head++];
+      if (next == end) {
+        int length = 1;
+        for (int cell = end; cell != start; cell = this.parents[cell]) {
+          length++;
+        }
+        int[] path = new int[length];
+        for (int cell = end; length > 0; cell = this.parents[cell]) {
+          path[--length] = cell;
+        }
+        return path;
+      }
+      int count = grid.neighbors(next, neighbors);
+      for (int i = 0; i < count; i++) {
+        if (this.stamps[neighbors[i]] != this.query) {
+          this.stamps[neighbors[i]] = this.query;
+          this.parents[neighbors[i]] = next;
+          this.queue[tail++] = neighbors[i];
+        }
+      }
+    }
+    return new int[0];
+  }
+}
+
+// this class represents the work of solving the queries lo to hi - 1 of a RouteService, 
+// which is split in half until at most GRAIN queries are left 
+class RouteTask extends RecursiveAction {
+  RouteService service;
+  int[] starts;
+  int[] ends;
+  int[][] routes;
+  int lo;
+  int hi;
+
+  RouteTask(RouteService service, int[] starts, int[] ends, int[][] routes, int lo, int hi) {
+    this.service = service;
+    this.starts = starts;
+    this.ends = ends;
+    this.routes = routes;
+    this.lo = lo;
+    this.hi = hi;
+  }
+
+  // solves a few queries or splits the queries between two new tasks 
+  protected void compute() {
+    if (this.hi - this.lo <= RouteService.GRAIN) {
+      for (int i = this.lo; i < this.hi; i++) {
+        this.routes[i] = this.service.route(this.starts[i], this.ends[i]);
+      }
+    }
+    else {
+      int mid = (this.lo + this.hi) >>> 1;
+      ForkJoinTask.invokeAll(
+          new RouteTask(this.service, this.starts, this.ends, this.routes, this.lo, mid),
+          new RouteTask(this.service, this.starts, this.ends, this.routes, mid, this.hi));
+    }
+  }
+}
+
+// this class represents a maze with no edge, split into square chunks of chunkSize 
+// cells that are made with kruskal's algorithm when they are first needed. a chunk is 
+// always made from the same seed, mixed from the maze's seed and the chunk's place, so 
+// it comes out the same every time, and every two neighboring chunks are joined by one 
+// passage placed from the same mix. the maze is perfect inside a chunk, with loops only 
+// at the scale of chunks. at most capacity chunks are kept, the least recently used 
+// one is thrown away first and made again if it is needed again. chunks are numbered 
+// with ints, which leaves room for about 2^31 chunks in each direction 
+class ChunkedMaze {
+  long seed;
+  int chunkSize;
+  ChunkCache chunks;
+  int generated; // how many chunks have been made, counting the ones made again
+
+  ChunkedMaze(long seed, int chunkSize, int capacity) {
+    this.seed = seed;
+    this.chunkSize = chunkSize;
+    this.chunks = new ChunkCache(capacity);
+  }
+
+  // returns the grid of the chunk at the given chunk row and column 
+  Grid chunk(int chunkRow, int chunkColumn) {
+    Long key = ((long) chunkRow << 32) | (chunkColumn & 0xFFFFFFFFL);
+    Grid chunk = this.chunks.get(key);
+    if (chunk == null) {
+      Graph graph = new Graph(new Random(this.hash(chunkRow, chunkColumn, 0)));
+      graph.makeGraph(this.chunkSize, this.chunkSize);
+      graph.addEdges();
+      chunk = graph.grid;
+      this.chunks.put(key, chunk);
+      this.generated++;
+    }
+    return chunk;
+  }
+
+  // checks if the cell at the given row and column has a passage to the cell on its right 
+  boolean hasRight(long row, long column) {
+    int chunkRow = (int) Math.floorDiv(row, (long) this.chunkSize);
+    int chunkColumn = (int) Math.floorDiv(column, (long) this.chunkSize);
+    int r = (int) Math.floorMod(row, (long) this.chunkSize);
+    int c = (int) Math.floorMod(column, (long) this.chunkSize);
+    if (c < this.chunkSize - 1) {
+      return this.chunk(chunkRow, chunkColumn).hasRight(r * this.chunkSize + c);
+    }
+    return r == Math.floorMod(this.hash(chunkRow, chunkColumn, Grid.RIGHT), this.chunkSize);
+  }
+
+  // checks if the cell at the given row and column has a passage to the cell below it 
+  boolean hasDown(long row, long column) {
+    int chunkRow = (int) Math.floorDiv(row, (long) this.chunkSize);
+    int chunkColumn = (int) Math.floorDiv(column, (long) this.chunkSize);
+    int r = (int) Math.floorMod(row, (long) this.chunkSize);
+    int c = (int) Math.floorMod(column, (long) this.chunkSize);
+    if (r < this.chunkSize - 1) {
+      return this.chunk(chunkRow, chunkColumn).hasDown(r * this.chunkSize + c);
+    }
+    return c == Math.floorMod(this.hash(chunkRow, chunkColumn, Grid.DOWN), this.chunkSize);
+  }
+
+  // copies the given number of rows and columns of cells, starting from the given row 
+  // and column, into a new grid that can be drawn or searched. passages that lead out 
+  // of the window are left out 
+  Grid window(long row0, long column0, int rows, int columns) {
+    Grid grid = new Grid(rows, columns);
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        int bits = 0;
+        if (j < columns - 1 && this.hasRight(row0 + i, column0 + j)) {
+          bits |= Grid.RIGHT;
+        }
+        if (i < rows - 1 && this.hasDown(row0 + i, column0 + j)) {
+          bits |= Grid.DOWN;
+        }
+        grid.setBits(grid.index(i, j), bits);
+      }
+    }
+    return grid;
+  }
+
+  // returns a number mixed from this maze's seed, the given chunk and the given salt 
+  long hash(long chunkRow, long chunkColumn, int salt) {
+    return ChunkedMaze.mix(ChunkedMaze.mix(ChunkedMaze.mix(this.seed + salt) + chunkRow)
+        + chunkColumn);
+  }
+
+  // scrambles the bits of the given number, as splitmix64 does 
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
+
+// represents the chunks a ChunkedMaze keeps, in order of use, throwing the least 
+// recently used one away once there are more than capacity 
+class ChunkCache extends LinkedHashMap<Long, Grid> {
+  int capacity;
+
+  ChunkCache(int capacity) {
+    super(16, 0.75f, true);
+    this.capacity = capacity;
+  }
+
+  // checks if the least recently used chunk should be thrown away 
+  protected boolean removeEldestEntry(Map.Entry<Long, Grid> eldest) {
+    return this.size() > this.capacity;
+  }
+}
+
+// this class represents a graph with a grid of cells and an array of edges 
+class Graph {
+  static int width = 500; // width of the canvas
+  static int height = Graph.width * 6 / 10; // height of the canvas
+
+  static byte UNVISITED = 0;
+  static byte VISITED = 1;
+  static byte PATH = 2;
+
+  Grid grid;
+  byte[] marks;
+  int edges; // number of passages opened by kruskal's algorithm
+  TreeIndex index; // built by treeSearch, for a maze whose walls no longer change
+  CorridorGraph corridors; // built by corridorSearch, for the same kind of maze
+  BitFlood floods; // built by floodSearch, and dropped when the walls change
+  byte[] costs; // the cost of walking each edge slot, or null if every step costs 1
+  LifelongPlanner planner; // built by incrementalSearch, and told of every toggled wall
+  int[] planned = new int[0]; // the path of the last incremental search
+  Random rand;
+
+  WorldScene scene = new WorldScene(Graph.width, Graph.height);
+  ComputedPixelImage cellLayer; // every cell painted in its color, kept between frames
+  ComputedPixelImage wallLayer; // every wall painted black, kept until the walls change
+  int[] dirty = new int[4096]; // the cells marked since the last frame
+  Camera camera; // the part of the maze drawn, or null to draw all of it
+  ComputedPixelImage view; // the canvas as the camera saw it in the last frame
+  int viewMoves = -1; // how many times the camera had moved at the last frame
+  byte[][] levels; // the strongest mark in every block of cells, by level of detail
+  int dirtySize; // how many cells were marked, past dirty.length the whole layer is painted
+
+  // main constructor 
+  Graph() {
+    this.rand = new Random();
+  }
+
+  // constructor that takes in a random - used for testing purposes 
+  Graph(Random rand) {
+    this.rand = rand;
+  }
+
+  // creates a grid of cells with the given number of rows and columns
+  void makeGraph(int row, int column) {
+    this.setGrid(new Grid(row, column));
+  }
+
+  // makes this graph use the given grid, such as one opened from a maze file 
+  void setGrid(Grid grid) {
+    this.grid = grid;
+    this.index = null;
+    this.corridors = null;
+    this.floods = null;
+    this.costs = null;
+    this.planner = null;
+    this.planned = new int[0];
+    this.marks = new byte[this.grid.size()];
+    this.cellLayer = null;
+    this.wallLayer = null;
+    this.view = null;
+    this.levels = null;
+  }
+
+  // changes the mark of the given cell to UNVISITED, VISITED or PATH and remembers 
+  // that it has to be painted again 
+  void mark(int cell, byte mark) {
+    if (this.marks[cell] != mark) {
+      this.marks[cell] = mark;
+      if (this.dirtySize < this.dirty.length) {
+        this.dirty[this.dirtySize] = cell;
+      }
+      this.dirtySize++;
+      if (this.levels != null) {
+        this.markLevels(this.grid.rowOf(cell), this.grid.columnOf(cell));
+      }
+    }
+  }
+
+  // builds the strongest mark of every block of cells for each level of detail, a 
+  // block of a level being 2 by 2 blocks of the level below, until one block is left. 
+  // level 0 is the marks themselves 
+  void buildLevels() {
+    int count = 1;
+    while (((this.grid.rows - 1) | (this.grid.columns - 1)) >> (count - 1) > 0) {
+      count++;
+    }
+    this.levels = new byte[count][];
+    this.levels[0] = this.marks;
+    for (int level = 1; level < count; level++) {
+      int rows = ((this.grid.rows - 1) >> level) + 1;
+      int columns = ((this.grid.columns - 1) >> level) + 1;
+      this.levels[level] = new byte[rows * columns];
+      for (int row = 0; row < rows; row++) {
+        for (int column = 0; column < columns; column++) {
+          this.levels[level][row * columns + column] = this.strongest(level, row, column);
+        }
+      }
+    }
+  }
+
+  // returns the strongest mark of the four blocks under the given block of the given 
+  // level, PATH being the strongest and UNVISITED the weakest 
+  byte strongest(int level, int row, int column) {
+    int rows = ((this.grid.rows - 1) >> (level - 1)) + 1;
+    int columns = ((this.grid.columns - 1) >> (level - 1)) + 1;
+    byte[] below = this.levels[level - 1];
+    byte mark = Graph.UNVISITED;
+    for (int r = row * 2; r < Math.min(rows, row * 2 + 2); r++) {
+      for (int c = column * 2; c < Math.min(columns, column * 2 + 2); c++) {
+        mark = (byte) Math.max(mark, below[r * columns + c]);
+      }
+    }
+    return mark;
+  }
+
+  // brings the blocks over the cell at the given row and column up to date after its 
+  // mark changed, stopping at the first block that stays the same 
+  void markLevels(int row, int column) {
+    for (int level = 1; level < this.levels.length; level++) {
+      row >>= 1;
+      column >>= 1;
+      int index = row * (((this.grid.columns - 1) >> level) + 1) + column;
+      byte mark = this.strongest(level, row, column);
+      if (this.levels[level][index] == mark) {
+        return;
+      }
+      this.levels[level][index] = mark;
+    }
+  }
+
+  // returns the color the given cell is drawn with 
+  Color colorOf(int cell) {
+    return Graph.colorOf(this.marks[cell]);
+  }
+
+  // returns the color of the given mark 
+  static Color colorOf(byte mark) {
+    if (mark == Graph.PATH) {
+      return Color.red;
+    }
+    else if (mark == Graph.VISITED) {
+      return Color.pink;
+    }
+    else {
+      return Color.LIGHT_GRAY;
+    }
+  }
+
+  // implements kruskal's algorithm to create a random maze based on edge weights, 
+  // opening a passage for every edge of the given sorted EdgeList that joins two 
+  // separate sets, and returns how many were opened 
+  int kruskalsAlgorithm(long[] givenEdges) {
+    return KruskalGenerator.join(this.grid, givenEdges);
+  }
+
+  // builds the maze with the given generator and this graph's random 
+  void generate(IMazeGenerator generator) {
+    this.edges = generator.generate(this.grid, this.rand);
+  }
+
+  // creates a randomly weighted edge between every pair of neighboring cells and 
+  // keeps the ones kruskal's algorithm picks 
+  void addEdges() {
+    this.generate(new KruskalGenerator());
+  }
+
+  // does the same as addEdges, but keeps the weight of every edge, plus one, as the cost 
+  // of walking through it, for the passages kruskal's algorithm opens and the walls it 
+  // leaves alike 
+  void addWeightedEdges() {
+    if (this.grid.size() > (Integer.MAX_VALUE - 8) / 2) {
+      throw new IllegalArgumentException("Too many edges to weigh: " + this.grid.size());
+    }
+    long[] sorted = EdgeList.sortedEdges(this.grid, this.rand);
+    this.costs = new byte[this.grid.size() * 2];
+    for (long edge : sorted) {
+      this.costs[EdgeList.slotOf(edge)] = (byte) (EdgeList.weightOf(edge) + 1);
+    }
+    this.edges = this.kruskalsAlgorithm(sorted);
+  }
+
+  // returns the cost of walking between the given neighboring cells 
+  int cost(int cell1, int cell2) {
+    if (this.costs == null) {
+      return 1;
+    }
+    int low = Math.min(cell1, cell2);
+    return this.costs[low * 2 + (this.grid.direction(cell1, cell2) == Grid.DOWN ? 1 : 0)];
+  }
+
+  // builds the maze one row at a time with eller's algorithm instead of kruskal's 
+  void addEdgesByRows() {
+    this.generate(new EllerGridGenerator());
+  }
+
+  // does the same as addEdges, but builds tiles of the maze on every core at once 
+  void addEdgesInParallel() {
+    this.generate(new ParallelKruskalGenerator());
+  }
+
+  // draws the graph and will add edges throughout the graph as needed. the cells are 
+  // kept painted in cellLayer between frames, so only the cells marked since the last 
+  // frame are painted again 
+  WorldScene draw() {
+    if (this.camera != null) {
+      return this.drawView(this.camera);
+    }
+    FrameEvent event = new FrameEvent();
+    event.begin();
+    int xMax = this.grid.rows;
+    int yMax = this.grid.columns;
+
+    int xLength = this.cellWidth();
+    int yLength = this.cellHeight();
+
+    int painted = this.dirtySize;
+    if (this.cellLayer == null || this.dirtySize > this.dirty.length) {
+      painted = this.grid.size();
+      if (this.cellLayer == null) {
+        this.cellLayer = new ComputedPixelImage(yMax * xLength, xMax * yLength);
+      }
+      for (int cell = 0; cell < this.grid.size(); cell++) {
+        this.paintCell(cell, xLength, yLength);
+      }
+    }
+    else {
+      for (int i = 0; i < this.dirtySize; i++) {
+        this.paintCell(this.dirty[i], xLength, yLength);
+      }
+    }
+    this.dirtySize = 0;
+
+    WorldImage background = new RectangleImage(Graph.width, Graph.height,
+        OutlineMode.SOLID, Color.LIGHT_GRAY);
+
+    this.scene = new WorldScene(Graph.width, Graph.height);
+    scene.placeImageXY(background, Graph.width / 2, Graph.height / 2);
+    scene.placeImageXY(this.cellLayer, yMax * xLength / 2, xMax * yLength / 2);
+
+    this.drawEdges(xMax, yMax, xLength, yLength);
+    MazeMetrics.drawn(event, painted);
+    return this.scene;
+  }
+
+  // draws only the part of the graph the given camera sees, pixel by pixel into a single 
+  // image the size of the canvas, so a frame costs the same for any size of maze. when 
+  // a pixel covers many cells it shows the strongest mark of its block of cells, and 
+  // walls are only drawn once cells are WALL_ZOOM pixels wide. the image is kept while 
+  // the camera, the marks and the walls stay the same 
+  WorldScene drawView(Camera camera) {
+    FrameEvent event = new FrameEvent();
+    event.begin();
+    int level = camera.level();
+    if (level > 0 && this.levels == null) {
+      this.buildLevels();
+    }
+    long painted = 0;
+    if (this.view == null || this.viewMoves != camera.moves || this.dirtySize > 0) {
+      if (this.view == null || this.view.getWidth() != camera.width
+          || this.view.getHeight() != camera.height) {
+        this.view = new ComputedPixelImage(camera.width, camera.height);
+      }
+      this.paintView(camera, Math.min(level, this.levels == null ? 0 
+          : this.levels.length - 1));
+      painted = (long) camera.width * camera.height;
+      this.viewMoves = camera.moves;
+      this.dirtySize = 0;
+    }
+
+    this.scene = new WorldScene(camera.width, camera.height);
+    this.scene.placeImageXY(this.view, camera.width / 2, camera.height / 2);
+    MazeMetrics.drawn(event, painted);
+    return this.scene;
+  }
+
+  // paints every pixel of the view from the given camera at the given level of detail 
+  void paintView(Camera camera, int level) {
+    int size = 1 << level;
+    int[] columns = new int[camera.width + 1];
+    int[] rows = new int[camera.height + 1];
+    for (int x = 0; x <= camera.width; x++) {
+      columns[x] = (int) Math.floor(camera.columnAt(x)) >> level;
+    }
+    for (int y = 0; y <= camera.height; y++) {
+      rows[y] = (int) Math.floor(camera.rowAt(y)) >> level;
+    }
+    int blockRows = ((this.grid.rows - 1) >> level) + 1;
+    int blockColumns = ((this.grid.columns - 1) >> level) + 1;
+    boolean walls = level == 0 && camera.zoom >= Camera.WALL_ZOOM;
+    byte[] marks = level == 0 ? this.marks : this.levels[level];
+
+    for (int y = 0; y < camera.height; y++) {
+      int row = rows[y];
+      for (int x = 0; x < camera.width; x++) {
+        int column = columns[x];
+        Color color;
+        if (row < 0 || column < 0 || row >= blockRows || column >= blockColumns) {
+          color = Color.darkGray;
+        }
+        else if (level > 0) {
+          color = Graph.colorOf(marks[row * blockColumns + column]);
+        }
+        else {
+          int cell = this.grid.index(row, column);
+          color = cell == 0 ? Color.green
+              : cell == this.grid.size() - 1 ? Color.magenta : this.colorOf(cell);
+          if (walls && ((columns[x + 1] != column && column < this.grid.columns - 1
+              && !this.grid.hasRight(cell)) || (rows[y + 1] != row
+              && row < this.grid.rows - 1 && !this.grid.hasDown(cell)))) {
+            color = Color.black;
+          }
+        }
+        this.view.setPixel(x, y, color);
+      }
+    }
+  }
+
+  // returns the width of a cell on the canvas 
+  int cellWidth() {
+    return Math.max(1, Graph.width / this.grid.columns);
+  }
+
+  // returns the height of a cell on the canvas 
+  int cellHeight() {
+    return Math.max(1, Graph.height / this.grid.rows);
+  }
+
+  // paints the given cell onto the cell layer in its color, or in green or magenta if 
+  // it is the first or last cell 
+  void paintCell(int cell, int xLength, int yLength) {
+    Color color = this.colorOf(cell);
+    if (cell == 0) {
+      color = Color.green;
+    }
+    else if (cell == this.grid.size() - 1) {
+      color = Color.magenta;
+    }
+    int x = this.grid.columnOf(cell) * xLength;
+    int y = this.grid.rowOf(cell) * yLength;
+    for (int dy = 0; dy < yLength; dy++) {
+      for (int dx = 0; dx < xLength; dx++) {
+        this.cellLayer.setPixel(x + dx, y + dy, color);
+      }
+    }
+  }
+
+  // draws the edges for the graph onto the scene. the walls are painted once into 
+  // wallLayer, which is drawn as a single image until the walls change 
+  WorldScene drawEdges(int xMax, int yMax, int xLength, int yLength) {
+    if (this.wallLayer == null) {
+      this.wallLayer = new ComputedPixelImage(yMax * xLength, xMax * yLength);
+      for (int i = 0; i < xMax; i++) {
+        for (int j = 0; j < yMax; j++) {
+          int cell = this.grid.index(i, j);
+          if (j < yMax - 1 && !this.grid.hasRight(cell)) {
+            for (int y = i * yLength; y < (i + 1) * yLength; y++) {
+              this.wallLayer.setPixel((j + 1) * xLength - 1, y, Color.black);
+            }
+          }
+          if (i < xMax - 1 && !this.grid.hasDown(cell)) {
+            for (int x = j * xLength; x < (j + 1) * xLength; x++) {
+              this.wallLayer.setPixel(x, (i + 1) * yLength - 1, Color.black);
+            }
+          }
+        }
+      }
+    }
+    scene.placeImageXY(this.wallLayer, yMax * xLength / 2, xMax * yLength / 2);
+    return scene;
+  }
+
+  // throws away the painted walls and view so the next frame paints them again, for 
+  // after the walls of the grid have changed 
+  void wallsChanged() {
+    this.wallLayer = null;
+    this.view = null;
+  }
+
+  // draws the graph through the given camera from now on, or all of it if it is null 
+  void setCamera(Camera camera) {
+    this.camera = camera;
+    this.view = null;
+    this.cellLayer = null; // the marks it missed while the camera was in use
+  }
+
+  // opens the wall between the given neighboring cells if it is closed, or closes it if 
+  // it is open, and drops what was built from the old walls. the planner is told of the 
+  // change instead, so the next incremental search only repairs its path 
+  void toggleWall(int cell1, int cell2) {
+    if (this.grid.connected(cell1, cell2)) {
+      this.grid.close(cell1, cell2);
+      this.edges--;
+    }
+    else {
+      this.grid.open(cell1, cell2);
+      this.edges++;
+    }
+    this.index = null;
+    this.corridors = null;
+    this.floods = null;
+    this.wallsChanged();
+    if (this.planner != null) {
+      this.planner.wallChanged(cell1, cell2);
+    }
+  }
+
+  // searches the graph with lifelong planning A*, which after the first search only 
+  // expands the cells whose distance a toggled wall changed, and returns true if found. 
+  // the path of the last incremental search is cleared before the new one is shown 
+  boolean incrementalSearch(Utils u) {
+    SearchEvent event = new SearchEvent();
+    event.begin();
+    if (this.planner == null) {
+      this.planner = new LifelongPlanner(this, 0, this.grid.size() - 1);
+    }
+    for (int cell : this.planned) {
+      if (this.marks[cell] == Graph.PATH) {
+        this.mark(cell, Graph.UNVISITED);
+      }
+    }
+    boolean found = this.planner.plan();
+    this.planned = this.planner.path();
+    int[] backtrack = new int[found ? this.grid.size() : 0];
+    for (int i = 1; i < this.planned.length; i++) {
+      backtrack[this.planned[i]] = this.planned[i - 1];
+    }
+    u.record(this, this.planner.history, this.planner.expanded, backtrack);
+    return MazeMetrics.searched(event, "incremental", found, this.planner.expanded);
+  }
+
+  // searches the graph using breadth first search 
+  boolean breadthFirstSearch(Utils u) {
+    return searchHelper(new QueueCollection(this.grid.size()), u);
+  }
+
+  // searches the graph using a breadth first search that spreads each level across 
+  // every core, giving the same result as breadthFirstSearch 
+  boolean parallelBreadthFirstSearch(Utils u) {
+    return new ParallelBreadthFirstSearch(this.grid, 4096)
+        .search(this, u, ForkJoinPool.commonPool());
+  }
+
+  // finds the path to the last cell in the tree index of the graph, building the index 
+  // the first time. the path is there at once, so no cells are searched 
+  boolean treeSearch(Utils u) {
+    SearchEvent event = new SearchEvent();
+    event.begin();
+    if (this.index == null) {
+      this.index = new TreeIndex(this.grid);
+    }
+    boolean found = this.index.depth[this.grid.size() - 1] >= 0;
+    u.record(this, new int[0], 0, found ? this.index.parent : new int[0]);
+    return MazeMetrics.searched(event, "tree", found);
+  }
+
+  // searches the junctions and dead ends of the graph with dijkstra's algorithm, 
+  // contracting its corridors on the first search, and returns true if found 
+  boolean corridorSearch(Utils u) {
+    SearchEvent event = new SearchEvent();
+    event.begin();
+    if (this.corridors == null) {
+      this.corridors = new CorridorGraph(this.grid);
+    }
+    int[] path = this.corridors.path(0, this.grid.size() - 1);
+    int[] backtrack = new int[path.length > 0 ? this.grid.size() : 0];
+    for (int i = 1; i < path.length; i++) {
+      backtrack[path[i]] = path[i - 1];
+    }
+    u.record(this, this.corridors.history, this.corridors.expanded, backtrack);
+    return MazeMetrics.searched(event, "corridor", path.length > 0,
+        this.corridors.expanded);
+  }
+
+  // searches the graph with dijkstra's algorithm for the path of least cost, keeping 
+  // the cells waiting in a BucketQueue since no step costs more than MAX_WEIGHT, and 
+  // returns true if found 
+  boolean dijkstraSearch(Utils utils) {
+    SearchEvent event = new SearchEvent();
+    event.begin();
+    int cell1 = 0;
+    int cell2 = this.grid.size() - 1;
+
+    int[] distances = new int[this.grid.size()];
+    long[] closed = new long[(this.grid.size() + 63) >>> 6];
+    int[] backtrack = new int[this.grid.size()];
+    int[] history = new int[this.grid.size()];
+    int searched = 0;
+    int peak = 1;
+    int stale = 0;
+    int[] neighbors = new int[4];
+    BucketQueue open = new BucketQueue(EdgeList.MAX_WEIGHT);
+    Arrays.fill(distances, Integer.MAX_VALUE);
+    distances[cell1] = 0;
+    open.add(cell1, 0);
+
+    while (!open.empty()) {
+      peak = Math.max(peak, open.size);
+      int next = open.remove();
+
+      if (next == cell2) {
+        utils.record(this, history, searched, backtrack);
+        return MazeMetrics.searched(event, "dijkstra", true, searched, peak, stale);
+      }
+      if ((closed[next >>> 6] & (1L << next)) != 0) {
+        stale++;
+        continue; // a stale entry for a cell that was already expanded
+      }
+      closed[next >>> 6] |= 1L << next;
+
+      int count = this.grid.neighbors(next, neighbors);
+      for (int i = 0; i < count; i++) {
+        int neighbor = neighbors[i];
+        int distance = open.distance + this.cost(next, neighbor);
+        if (distance < distances[neighbor]) {
+          distances[neighbor] = distance;
+          backtrack[neighbor] = next;
+          open.add(neighbor, distance);
+        }
+      }
+      history[searched] = next;
+      searched++;
+    }
+    utils.record(this, history, searched, new int[0]);
+    return MazeMetrics.searched(event, "dijkstra", false, searched, peak, stale);
+  }
+
+  // floods the graph from the first cell 64 cells at a time with a BitFlood, then 
+  // follows the distances back down from the last cell for the path, and returns true 
+  // if found. like the tree index it shows no flood, only the path 
+  boolean floodSearch(Utils u) {
+    SearchEvent event = new SearchEvent();
+    event.begin();
+    if (this.floods == null) {
+      this.floods = new BitFlood(this.grid);
+    }
+    int[] distances = this.floods.distances(0);
+    int[] backtrack = new int[this.grid.size()];
+    int[] neighbors = new int[4];
+    int cell = this.grid.size() - 1;
+    boolean found = distances[cell] >= 0;
+    while (found && cell != 0) {
+      int count = this.grid.neighbors(cell, neighbors);
+      for (int i = 0; i < count; i++) {
+        if (distances[neighbors[i]] == distances[cell] - 1) {
+          backtrack[cell] = neighbors[i];
+        }
+      }
+      cell = backtrack[cell];
+    }
+    u.record(this, new int[0], 0, found ? backtrack : new int[0]);
+    return MazeMetrics.searched(event, "flood", found);
+  }
+
+  // searches the graph using depth first search 
+  boolean depthFirstSearch(Utils u) {
+    return searchHelper(new StackCollection(this.grid.size()), u);
+  }
+
+  // searches the graph with a given ICollection, either StackCollection or 
+  // QueueCollection, and returns true if found. a cell is marked visited when it is 
+  // added, so every cell goes through the collection at most once 
+  boolean searchHelper(ICollection cells, Utils utils) {
+    SearchEvent event = new SearchEvent();
+    event.begin();
+
+    int cell1 = 0; 
+    int cell2 = this.grid.size() - 1;
+
+    long[] visited = new long[(this.grid.size() + 63) >>> 6];
+    int[] backtrack = new int[this.grid.size()];
+    int[] history = new int[this.grid.size()];
+    int searched = 0;
+    int peak = 1;
+    int[] neighbors = new int[4];
+    cells.add(cell1);
+    visited[cell1 >>> 6] |= 1L << cell1;
+
+    while (!cells.empty()) {
+      peak = Math.max(peak, cells.size());
+      int next = cells.remove();
+
+      if (next == cell2) {
+        utils.record(this, history, searched, backtrack);
+        return MazeMetrics.searched(event, cells instanceof QueueCollection ? "bfs" : "dfs",
+            true, searched, peak); 
+      }
+      int count = this.grid.neighbors(next, neighbors);
+      for (int i = 0; i < count; i++) {
+        int neighbor = neighbors[i];
+        if ((visited[neighbor >>> 6] & (1L << neighbor)) == 0) {
+          visited[neighbor >>> 6] |= 1L << neighbor;
+          backtrack[neighbor] = next;
+          cells.add(neighbor);
+        }
+      }
+      history[searched] = next;
+      searched++;
+    }
+    utils.record(this, history, searched, new int[0]);
+    return MazeMetrics.searched(event, cells instanceof QueueCollection ? "bfs" : "dfs",
+        false, searched, peak);
+  }
+
+  // searches the graph using A* with the manhattan distance to the last cell as the 
+  // heuristic, expanding the cell with the lowest estimated path length first and 
+  // preferring the deeper cell when two estimates are equal 
+  boolean aStarSearch(Utils utils) {
+    SearchEvent event = new SearchEvent();
+    event.begin();
+    int cell1 = 0;
+    int cell2 = this.grid.size() - 1;
+
+    long[] closed = new long[(this.grid.size() + 63) >>> 6];
+    int[] distance = new int[this.grid.size()];
+    Arrays.fill(distance, Integer.MAX_VALUE);
+    int[] backtrack = new int[this.grid.size()];
+    int[] history = new int[this.grid.size()];
+    int searched = 0;
+    int peak = 1;
+    int stale = 0;
+    int[] neighbors = new int[4];
+    CellHeap open = new CellHeap(16);
+    distance[cell1] = 0;
+    open.add(cell1, this.aStarKey(cell1, 0));
+
+    while (!open.empty()) {
+      peak = Math.max(peak, open.size);
+      int next = open.remove();
+
+      if (next == cell2) {
+        utils.record(this, history, searched, backtrack);
+        return MazeMetrics.searched(event, "astar", true, searched, peak, stale);
+      }
+      if ((closed[next >>> 6] & (1L << next)) != 0) {
+        stale++;
+        continue; // a stale entry for a cell that was already expanded
+      }
+      closed[next >>> 6] |= 1L << next;
+      int count = this.grid.neighbors(next, neighbors);
+      for (int i = 0; i < count; i++) {
+        int neighbor = neighbors[i];
+        if (distance[next] + 1 < distance[neighbor]) {
+          distance[neighbor] = distance[next] + 1;
+          backtrack[neighbor] = next;
+          open.add(neighbor, this.aStarKey(neighbor, distance[neighbor]));
+        }
+      }
+      history[searched] = next;
+      searched++;
+    }
+    utils.record(this, history, searched, new int[0]);
+    return MazeMetrics.searched(event, "astar", false, searched, peak, stale);
+  }
+
+  // returns the heap key of a cell reached after the given distance, which orders by 
+  // distance plus manhattan distance to the last cell and then by greatest distance 
+  long aStarKey(int cell, int distance) {
+    long estimate = (long) distance + (this.grid.rows - 1 - this.grid.rowOf(cell))
+        + (this.grid.columns - 1 - this.grid.columnOf(cell));
+    return (estimate << 32) | (Integer.MAX_VALUE - distance);
+  }
+
+  // searches the graph with a breadth first search from each end at once, expanding a 
+  // whole level of the smaller frontier at a time until the two searches meet 
+  boolean bidirectionalSearch(Utils utils) {
+    SearchEvent event = new SearchEvent();
+    event.begin();
+    int cell1 = 0;
+    int cell2 = this.grid.size() - 1;
+
+    long[] fromStart = new long[(this.grid.size() + 63) >>> 6];
+    long[] fromEnd = new long[(this.grid.size() + 63) >>> 6];
+    int[] backtrack = new int[this.grid.size()]; // toward whichever end found the cell
+    int[] distance = new int[this.grid.size()];
+    int[] history = new int[this.grid.size()];
+    int searched = 0;
+    int[] neighbors = new int[4];
+    QueueCollection startQueue = new QueueCollection(this.grid.size());
+    QueueCollection endQueue = new QueueCollection(this.grid.size());
+    startQueue.add(cell1);
+    fromStart[cell1 >>> 6] |= 1L << cell1;
+    endQueue.add(cell2);
+    fromEnd[cell2 >>> 6] |= 1L << cell2;
+    int meetFrom = -1;
+    int meetTo = -1;
+    int peak = 2;
+
+    if (cell1 == cell2) {
+      utils.record(this, history, 0, backtrack);
+      return MazeMetrics.searched(event, "bidirectional", true, 0, 1);
+    }
+    while (meetFrom < 0 && !startQueue.empty() && !endQueue.empty()) {
+      peak = Math.max(peak, startQueue.size + endQueue.size);
+      boolean forward = startQueue.size <= endQueue.size;
+      QueueCollection queue = forward ? startQueue : endQueue;
+      long[] mine = forward ? fromStart : fromEnd;
+      long[] theirs = forward ? fromEnd : fromStart;
+      int bestLength = Integer.MAX_VALUE;
+
+      for (int level = queue.size; level > 0; level--) {
+        int next = queue.remove();
+        int count = this.grid.neighbors(next, neighbors);
+        for (int i = 0; i < count; i++) {
+          int neighbor = neighbors[i];
+          if ((theirs[neighbor >>> 6] & (1L << neighbor)) != 0) {
+            if (distance[next] + distance[neighbor] < bestLength) {
+              bestLength = distance[next] + distance[neighbor];
+              meetFrom = forward ? next : neighbor;
+              meetTo = forward ? neighbor : next;
+            }
+          }
+          else if ((mine[neighbor >>> 6] & (1L << neighbor)) == 0) {
+            mine[neighbor >>> 6] |= 1L << neighbor;
+            backtrack[neighbor] = next;
+            distance[neighbor] = distance[next] + 1;
+            queue.add(neighbor);
+          }
+        }
+        history[searched] = next;
+        searched++;
+      }
+    }
+    if (meetFrom < 0) {
+      utils.record(this, history, searched, new int[0]);
+      return MazeMetrics.searched(event, "bidirectional", false, searched, peak);
+    }
+
+    // turns the cells from the meeting point to the last cell around so the whole 
+    // path can be followed back from the last cell to the first
+    int previous = meetFrom;
+    int current = meetTo;
+    while (current != cell2) {
+      int following = backtrack[current];
+      backtrack[current] = previous;
+      previous = current;
+      current = following;
+    }
+    backtrack[cell2] = previous;
+    utils.record(this, history, searched, backtrack);
+    return MazeMetrics.searched(event, "bidirectional", true, searched, peak);
+  }
+
+}
+
+// this class represents the part of a maze shown on a canvas of width by height pixels: 
+// the place of the top left corner in cells, which may fall inside a cell, and the zoom 
+// in pixels per cell. below one pixel per cell a pixel stands for a square block of 
+// cells, the smallest power of two on a side that covers it 
+class Camera {
+  static double MIN_ZOOM = 1.0 / (1 << 20);
+  static double MAX_ZOOM = 256;
+  static double WALL_ZOOM = 3; // the least zoom walls are drawn at
+
+  int width;
+  int height;
+  double left;
+  double top;
+  double zoom;
+  int moves; // how many times this camera has moved, so a frame knows if it is stale
+
+  Camera(int width, int height, double left, double top, double zoom) {
+    this.width = width;
+    this.height = height;
+    this.left = left;
+    this.top = top;
+    this.zoom = zoom;
+  }
+
+  // returns a camera that shows the whole of the given grid on a canvas of the given 
+  // size, with cells as large as fit 
+  static Camera fit(Grid grid, int width, int height) {
+    double zoom = Math.min((double) width / grid.columns, (double) height / grid.rows);
+    return new Camera(width, height, 0, 0,
+        Math.max(Camera.MIN_ZOOM, Math.min(Camera.MAX_ZOOM, zoom)));
+  }
+
+  // moves this camera by the given number of pixels 
+  void pan(int dx, int dy) {
+    this.left += dx / this.zoom;
+    this.top += dy / this.zoom;
+    this.moves++;
+  }
+
+  // zooms this camera in by the given factor, or out if it is below 1, keeping the 
+  // center of the canvas on the same place of the maze 
+  void zoomBy(double factor) {
+    double centerX = this.left + this.width / 2.0 / this.zoom;
+    double centerY = this.top + this.height / 2.0 / this.zoom;
+    this.zoom = Math.max(Camera.MIN_ZOOM, Math.min(Camera.MAX_ZOOM, this.zoom * factor));
+    this.left = centerX - this.width / 2.0 / this.zoom;
+    this.top = centerY - this.height / 2.0 / this.zoom;
+    this.moves++;
+  }
+
+  // returns the column of the maze, with its fraction, under the given x pixel 
+  double columnAt(int x) {
+    return this.left + x / this.zoom;
+  }
+
+  // returns the row of the maze, with its fraction, under the given y pixel 
+  double rowAt(int y) {
+    return this.top + y / this.zoom;
+  }
+
+  // returns the level of detail a pixel is drawn at: 0 for a single cell, or n for a 
+  // block of 2^n by 2^n cells 
+  int level() {
+    int level = 0;
+    while (level < 31 && (1L << level) * this.zoom < 1) {
+      level++;
+    }
+    return level;
+  }
+}
+
+// this class represents an edge between two cells (from cell1 to cell2), given by 
+// their index in the grid, and assigns it a random weight 
+class Edge {
+  int cell1; 
+  int cell2;
+
+  Random rand;
+  int valWeight;
+
+  Edge(Cell cell1, Cell cell2) {
+    this.cell1 = cell1.num;
+    this.cell2 = cell2.num;
+    this.rand = new Random();
+    this.valWeight = this.rand.nextInt(250); // randomly selects weight 
+  }
+
+  Edge(Cell cell1, Cell cell2, int valWeight) {
+    this(cell1.num, cell2.num, valWeight);
+  }
+
+  Edge(int cell1, int cell2, int valWeight) {
+    this.cell1 = cell1;
+    this.cell2 = cell2;
+    this.valWeight = valWeight;
+  }
+
+}
+
+// this class represents the maze which is created through the graph
+class Maze extends World {
+  int row;
+  int column;
+
+  Graph graph;
+  Random rand;
+  Utils utils;
+  String running; // the search run a step at a time that is not reported yet, or null
+
+  // Maze takes only in numRows and calculates the number of columns 
+  Maze(int row) {
+    this.row = row;
+    this.column = row * 10 / 6;
+
+    this.graph = new Graph();
+    this.graph.makeGraph(this.row, this.column);
+    this.graph.addEdges();
+
+    this.rand = new Random();
+    this.utils = new Utils();
+    // a replay takes about the same number of ticks for any size of maze, and never 
+    // more than half of a tick
+    this.utils.batch = Math.max(1, this.graph.grid.size() / 1000);
+    this.utils.budget = 5000000;
+    // a maze with more cells than pixels can only be drawn through a camera
+    if (Graph.width < this.column || Graph.height < this.row) {
+      this.graph.setCamera(Camera.fit(this.graph.grid, Graph.width, Graph.height));
+    }
+  }
+
+  // this method returns a scene with the graph drawn 
+  @Override
+  public WorldScene makeScene() {
+    return this.graph.draw();
+  }
+
+  // for every tick the cells that are followed will be flooded, the scene 
+  // is then made by the world for the frame 
+  public void onTick() { 
+    this.utils.floodTheCells();
+    this.reportIfDone();
+  }
+
+  // prints how many cells the search run a step at a time expanded once it is done 
+  void reportIfDone() {
+    if (this.running != null && this.utils.search != null && this.utils.search.done) {
+      this.report(this.running);
+      this.running = null;
+    }
+  }
+
+  //this method takes in a String of a key and if it is b , 
+  // the program will start a breadth first search that runs a step at a 
+  // time on each tick, if it is d, the program will start a depth first 
+  // search the same way, if it is a, the program 
+  // will run an A* search, if it is m, the program will run a search from 
+  // both ends that meets in the middle, if it is t, the program will show 
+  // the path from the tree index, if it is c, the program will search the 
+  // junctions between corridors, if it is w, the program will find the path 
+  // of least cost, if it is i, the program will repair the path of the last 
+  // incremental search, if it is f, the program will flood the maze 64 cells 
+  // at a time and show the path, if it is s, the program will 
+  // skip to the end of the flood, the arrow keys pan the view and + and - 
+  // zoom it, 0 shows the whole maze again if it fits, and anything else 
+  // will not change the graph
+  public void onKeyEvent(String key) { 
+    if (key.equals("b")) { 
+      this.utils.start(new SteppedSearch(this.graph, new QueueCollection(64))); 
+      this.running = "breadth first search";
+    }
+    if (key.equals("d")) { 
+      this.utils.start(new SteppedSearch(this.graph, new StackCollection(64))); 
+      this.running = "depth first search";
+    }
+    if (key.equals("a")) { 
+      this.graph.aStarSearch(this.utils); 
+      this.report("A* search");
+    }
+    if (key.equals("m")) { 
+      this.graph.bidirectionalSearch(this.utils); 
+      this.report("bidirectional search");
+    }
+    if (key.equals("t")) { 
+      this.graph.treeSearch(this.utils); 
+      this.report("tree index");
+    }
+    if (key.equals("c")) { 
+      this.graph.corridorSearch(this.utils); 
+      this.report("corridor search");
+    }
+    if (key.equals("w")) { 
+      this.graph.dijkstraSearch(this.utils); 
+      this.report("dijkstra search");
+    }
+    if (key.equals("i")) { 
+      this.graph.incrementalSearch(this.utils); 
+      this.report("incremental search");
+    }
+    if (key.equals("f")) { 
+      this.graph.floodSearch(this.utils); 
+      this.report("bit flood");
+    }
+    if (key.equals("s")) { 
+      this.utils.skipToResult(); 
+      this.reportIfDone();
+    }
+    if (key.equals("left") || key.equals("right") || key.equals("up")
+        || key.equals("down") || key.equals("+") || key.equals("=") || key.equals("-")) {
+      this.moveCamera(key);
+    }
+    if (key.equals("0") && Graph.width >= this.column && Graph.height >= this.row) { 
+      this.graph.setCamera(null); 
+    }
+  }
+
+  // pans the camera a quarter of the canvas with the arrow keys, or zooms it in or out 
+  // twice as far with + and -, starting from a camera that shows the whole maze 
+  void moveCamera(String key) {
+    if (this.graph.camera == null) {
+      this.graph.setCamera(Camera.fit(this.graph.grid, Graph.width, Graph.height));
+    }
+    Camera camera = this.graph.camera;
+    if (key.equals("left")) {
+      camera.pan(-camera.width / 4, 0);
+    }
+    else if (key.equals("right")) {
+      camera.pan(camera.width / 4, 0);
+    }
+    else if (key.equals("up")) {
+      camera.pan(0, -camera.height / 4);
+    }
+    else if (key.equals("down")) {
+      camera.pan(0, camera.height / 4);
+    }
+    else if (key.equals("-")) {
+      camera.zoomBy(0.5);
+    }
+    else {
+      camera.zoomBy(2);
+    }
+  }
+
+  // opens or closes the wall of the clicked cell nearest to where it was clicked, and 
+  // repairs the path of the incremental search if there is one 
+  public void onMouseClicked(Posn pos) {
+    Grid grid = this.graph.grid;
+    Camera camera = this.graph.camera;
+    double columnAt = camera == null ? (double) pos.x / this.graph.cellWidth()
+        : camera.columnAt(pos.x);
+    double rowAt = camera == null ? (double) pos.y / this.graph.cellHeight()
+        : camera.rowAt(pos.y);
+    int column = (int) Math.floor(columnAt);
+    int row = (int) Math.floor(rowAt);
+    if (column < 0 || row < 0 || row >= grid.rows || column >= grid.columns) {
+      return;
+    }
+    int cell = grid.index(row, column);
+    double x = columnAt - column;
+    double y = rowAt - row;
+    double nearest = Math.min(Math.min(x, 1 - x), Math.min(y, 1 - y));
+    int other;
+    if (nearest == x && column > 0) {
+      other = cell - 1;
+    }
+    else if (nearest == 1 - x && column < grid.columns - 1) {
+      other = cell + 1;
+    }
+    else if (nearest == y && row > 0) {
+      other = cell - grid.columns;
+    }
+    else if (nearest == 1 - y && row < grid.rows - 1) {
+      other = cell + grid.columns;
+    }
+    else {
+      return; // the nearest wall is on the edge of the maze
+    }
+    this.graph.toggleWall(cell, other);
+    if (this.graph.planner != null) {
+      this.graph.incrementalSearch(this.utils);
+      this.report("incremental search");
+    }
+  }
+
+  // prints how many cells the last search expanded 
+  void report(String search) {
+    System.out.println(search + " expanded " + this.utils.expanded + " of "
+        + this.graph.grid.size() + " cells");
+  }
+
+}
+
+// this class runs mazes without a window. it builds a graph with the chosen generator, 
+// solves it with the chosen search and prints how long each took, for example 
+//   java MazeRunner --rows 2000 --seed 7 --repeat 5 --generator parallel --solver astar
+class MazeRunner {
+  static String USAGE = "usage: java MazeRunner [--rows n] [--columns n] [--seed n] "
+      + "[--repeat n] [--generator kruskal|parallel|eller|prim|wilson|backtracker|weighted] "
+      + "[--solver bfs|dfs|astar|bidirectional|parallel-bfs|tree|corridor|dijkstra|flood] "
+      + "[--save file] [--load file] [--queries n]";
+  static List<String> GENERATORS = Arrays.asList("kruskal", "parallel", "eller", "prim",
+      "wilson", "backtracker", "weighted");
+  static List<String> SOLVERS = Arrays.asList("bfs", "dfs", "astar", "bidirectional",
+      "parallel-bfs", "tree", "corridor", "dijkstra", "flood");
+
+  int rows = 20;
+  int columns = -1; // rows * 10 / 6 like Maze unless given
+  long seed = new Random().nextLong();
+  int repeat = 1;
+  String generator = "kruskal";
+  String solver = "bfs";
+  String save; // the maze file the first maze is written to, or null
+  String load; // the maze file solved every time instead of generating mazes, or null
+  int queries; // how many routes between random cells are asked of each maze
+
+  public static void main(String[] args) {
+    MazeRunner runner = new MazeRunner();
+    try {
+      runner.parse(args);
+    }
+    catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println(MazeRunner.USAGE);
+      System.exit(2);
+    }
+    try {
+      runner.run(System.out);
+    }
+    catch (IOException e) {
+      System.err.println(e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  // reads the given command line options into this runner 
+  void parse(String[] args) {
+    for (int i = 0; i < args.length; i += 2) {
+      if (i + 1 == args.length) {
+        throw new IllegalArgumentException("Missing value for " + args[i]);
+      }
+      String value = args[i + 1];
+      if (args[i].equals("--rows")) {
+        this.rows = this.positive(args[i], value);
+      }
+      else if (args[i].equals("--columns")) {
+        this.columns = this.positive(args[i], value);
+      }
+      else if (args[i].equals("--seed")) {
+        this.seed = Long.parseLong(value);
+      }
+      else if (args[i].equals("--repeat")) {
+        this.repeat = this.positive(args[i], value);
+      }
+      else if (args[i].equals("--generator") && MazeRunner.GENERATORS.contains(value)) {
+        this.generator = value;
+      }
+      else if (args[i].equals("--solver") && MazeRunner.SOLVERS.contains(value)) {
+        this.solver = value;
+      }
+      else if (args[i].equals("--save")) {
+        this.save = value;
+      }
+      else if (args[i].equals("--load")) {
+        this.load = value;
+      }
+      else if (args[i].equals("--queries")) {
+        this.queries = this.positive(args[i], value);
+      }
+      else {
+        throw new IllegalArgumentException("Unknown option: " + args[i] + " " + value);
+      }
+    }
+    if (this.columns < 0) {
+      this.columns = Math.max(1, this.rows * 10 / 6);
+    }
+  }
+
+  // returns the given option value if it is a positive number 
+  int positive(String option, String value) {
+    int n = Integer.parseInt(value);
+    if (n <= 0) {
+      throw new IllegalArgumentException(option + " must be positive: " + value);
+    }
+    return n;
+  }
+
+  // generates and solves repeat mazes, the nth one from seed + n, and prints what 
+  // each one took to the given stream. with a maze file to load, that maze is solved 
+  // repeat times instead. with -Dmaze.metrics=true the counters are printed at the end 
+  void run(PrintStream out) throws IOException {
+    if (this.load != null) {
+      out.printf("%s, %s solver%n", this.load, this.solver);
+    }
+    else {
+      out.printf("%dx%d maze, %s generator, %s solver%n", this.rows, this.columns,
+          this.generator, this.solver);
+    }
+    for (int n = 0; n < this.repeat; n++) {
+      Graph graph = new Graph(new Random(this.seed + n));
+      Utils utils = new Utils();
+
+      long start = System.nanoTime();
+      long mazeSeed = this.seed + n;
+      if (this.load != null) {
+        MappedGrid grid = MazeFile.open(new File(this.load), false);
+        graph.setGrid(grid);
+        graph.edges = grid.passageCount();
+        mazeSeed = grid.seed;
+      }
+      else {
+        graph.makeGraph(this.rows, this.columns);
+        this.generate(graph);
+      }
+      long generated = System.nanoTime();
+      boolean found = this.solve(graph, utils);
+      long solved = System.nanoTime();
+
+      out.printf("seed %d: %d cells, %d edges kept, %s in %.2f ms, "
+          + "solved in %.2f ms, %d cells expanded, path of %s cells%n",
+          mazeSeed, graph.grid.size(), graph.edges,
+          this.load != null ? "opened" : "generated", (generated - start) / 1e6,
+          (solved - generated) / 1e6, utils.expanded,
+          found ? Integer.toString(utils.pathLength()) : "no");
+      if (n == 0 && this.save != null) {
+        MazeFile.save(graph.grid, mazeSeed, new File(this.save));
+      }
+      if (this.queries > 0) {
+        this.query(graph.grid, new Random(mazeSeed), out);
+      }
+    }
+    if (MazeMetrics.ENABLED) {
+      MazeMetrics.report(out);
+    }
+  }
+
+  // builds the maze of the given graph with this runner's generator 
+  void generate(Graph graph) {
+    if (this.generator.equals("parallel")) {
+      graph.addEdgesInParallel();
+    }
+    else if (this.generator.equals("eller")) {
+      graph.addEdgesByRows();
+    }
+    else if (this.generator.equals("prim")) {
+      graph.generate(new PrimGenerator());
+    }
+    else if (this.generator.equals("wilson")) {
+      graph.generate(new WilsonGenerator());
+    }
+    else if (this.generator.equals("backtracker")) {
+      graph.generate(new BacktrackerGenerator());
+    }
+    else if (this.generator.equals("weighted")) {
+      graph.addWeightedEdges();
+    }
+    else {
+      graph.addEdges();
     }
-    return false;
   }
 
-}
-
-// this class represents an edge between two cells (from cell1 to cell2) and assigns 
-// it a random weight 
-class Edge {
-  Cell cell1; 
-  Cell cell2;
-
-  Random rand;
-  int valWeight;
-
-  Edge(Cell cell1, Cell cell2) {
-    this.cell1 = cell1;
-    this.cell2 = cell2;
-    this.rand = new Random();
-    this.valWeight = this.rand.nextInt(250); // randomly selects weight 
+  // asks this runner's number of routes between random cells of the given grid 
+  // across the common pool, and prints how long they took to the given stream 
+  void query(Grid grid, Random rand, PrintStream out) {
+    int[] starts = new int[this.queries];
+    int[] ends = new int[this.queries];
+    for (int i = 0; i < this.queries; i++) {
+      starts[i] = rand.nextInt(grid.size());
+      ends[i] = rand.nextInt(grid.size());
+    }
+    long start = System.nanoTime();
+    int[][] routes = new RouteService(grid).routes(starts, ends, ForkJoinPool.commonPool());
+    long solved = System.nanoTime();
+    long cells = 0;
+    for (int[] route : routes) {
+      cells += route.length;
+    }
+    out.printf("  %d routes in %.2f ms, %.0f routes/s, %.1f cells on average%n",
+        this.queries, (solved - start) / 1e6, this.queries / ((solved - start) / 1e9),
+        (double) cells / this.queries);
   }
 
-  Edge(Cell cell1, Cell cell2, int valWeight) {
-    this.cell1 = cell1;
-    this.cell2 = cell2;
-    this.rand = new Random();
-    this.valWeight = valWeight;
+  // solves the given graph with this runner's solver, returning true if the last 
+  // cell was found 
+  boolean solve(Graph graph, Utils utils) {
+    if (this.solver.equals("dfs")) {
+      return graph.depthFirstSearch(utils);
+    }
+    else if (this.solver.equals("astar")) {
+      return graph.aStarSearch(utils);
+    }
+    else if (this.solver.equals("bidirectional")) {
+      return graph.bidirectionalSearch(utils);
+    }
+    else if (this.solver.equals("parallel-bfs")) {
+      return graph.parallelBreadthFirstSearch(utils);
+    }
+    else if (this.solver.equals("tree")) {
+      return graph.treeSearch(utils);
+    }
+    else if (this.solver.equals("corridor")) {
+      return graph.corridorSearch(utils);
+    }
+    else if (this.solver.equals("dijkstra")) {
+      return graph.dijkstraSearch(utils);
+    }
+    else if (this.solver.equals("flood")) {
+      return graph.floodSearch(utils);
+    }
+    else {
+      return graph.breadthFirstSearch(utils);
+    }
   }
-
 }
 
-// this class represents the maze which is created through the graph
-class Maze extends World {
-  int row;
-  int column;
-
-  Graph graph;
-  Random rand;
-  Utils utils;
-
-  // Maze takes only in numRows and calculates the number of columns 
-  Maze(int row) {
-    this.row = row;
-    this.column = row * 10 / 6;
-
-    this.graph = new Graph();
-    this.graph.makeGraph(this.row, this.column);
-    this.graph.addEdges();
+// this class measures the hot paths of the maze for a few sizes of maze, all built from 
+// the same seed: generating a maze, searching it breadth and depth first, and drawing a 
+// frame after a thousand cells change. for every benchmark and size it prints how many 
+// times per second it ran and how many bytes it allocated each time, for example 
+//   java MazeBenchmark 20 200 2000
+class MazeBenchmark {
+  static List<String> BENCHMARKS = Arrays.asList("generate", "bfs", "dfs", "draw");
+  static long SEED = 42;
+
+  int warmups = 3; // iterations run before measuring
+  int iterations = 5; // iterations measured
+  long iterationNanos = 200000000L; // how long each iteration keeps repeating the benchmark
+  Graph graph; // the maze the bfs, dfs and draw benchmarks run on
+  Random rand; // picks the cells the draw benchmark changes
+  long sink; // every result is folded in here so no benchmark can be optimized away
+
+  public static void main(String[] args) {
+    int[] sizes = {20, 200, 2000};
+    if (args.length > 0) {
+      sizes = new int[args.length];
+      for (int i = 0; i < args.length; i++) {
+        sizes[i] = Integer.parseInt(args[i]);
+      }
+    }
+    new MazeBenchmark().runAll(sizes, System.out);
+  }
 
-    this.rand = new Random();
-    this.utils = new Utils();
+  // runs every benchmark at every given number of rows and prints a table of results 
+  void runAll(int[] sizes, PrintStream out) {
+    out.printf("%-10s %6s %14s %14s %16s%n", "benchmark", "rows", "ops/s", "ms/op", "bytes/op");
+    for (String benchmark : MazeBenchmark.BENCHMARKS) {
+      for (int rows : sizes) {
+        long[] result = this.measure(benchmark, rows);
+        out.printf("%-10s %6d %14.3f %14.3f %16d%n", benchmark, rows,
+            result[0] * 1e9 / result[1], result[1] / 1e6 / result[0], result[2] / result[0]);
+      }
+    }
   }
 
-  // this method returns a scene with the graph drawn 
-  @Override
-  public WorldScene makeScene() {
-    return this.graph.draw();
+  // warms up and then measures the given benchmark at the given number of rows, 
+  // returning the total operations, nanoseconds and bytes allocated 
+  long[] measure(String benchmark, int rows) {
+    this.graph = new Graph(new Random(MazeBenchmark.SEED));
+    this.graph.makeGraph(rows, Math.max(1, rows * 10 / 6));
+    this.graph.addEdges();
+    this.graph.draw();
+    this.rand = new Random(MazeBenchmark.SEED);
+    for (int i = 0; i < this.warmups; i++) {
+      this.iteration(benchmark, rows);
+    }
+    long[] total = new long[3];
+    for (int i = 0; i < this.iterations; i++) {
+      long[] result = this.iteration(benchmark, rows);
+      for (int k = 0; k < 3; k++) {
+        total[k] += result[k];
+      }
+    }
+    return total;
   }
 
-  // for every tick the cells that are followed will be flooded and the 
-  // scene will be made 
-  public void onTick() { 
-    this.utils.floodTheCells();
-    this.makeScene(); 
+  // repeats the given benchmark for iterationNanos, returning how many operations ran, 
+  // how many nanoseconds they took and how many bytes they allocated 
+  long[] iteration(String benchmark, int rows) {
+    long bytes = MazeBenchmark.allocatedBytes();
+    long start = System.nanoTime();
+    long ops = 0;
+    long elapsed;
+    do {
+      this.sink += this.run(benchmark, rows);
+      ops++;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < this.iterationNanos);
+    return new long[] {ops, elapsed, MazeBenchmark.allocatedBytes() - bytes};
   }
 
-  //this method takes in a String of a key and if it is b , 
-  // the program will run a breadth first search, if it is d, 
-  // the program will run a depth first search, and anything else 
-  // will not change the graph
-  public void onKeyEvent(String key) { 
-    if (key.equals("b")) { 
-      this.graph.breadthFirstSearch(this.utils); 
+  // runs the given benchmark once and returns a number that depends on its work 
+  int run(String benchmark, int rows) {
+    if (benchmark.equals("generate")) {
+      Graph maze = new Graph(new Random(MazeBenchmark.SEED));
+      maze.makeGraph(rows, Math.max(1, rows * 10 / 6));
+      maze.addEdges();
+      return maze.edges;
     }
-    if (key.equals("d")) { 
-      this.graph.depthFirstSearch(this.utils); 
+    else if (benchmark.equals("bfs") || benchmark.equals("dfs")) {
+      Utils utils = new Utils();
+      if (benchmark.equals("bfs")) {
+        this.graph.breadthFirstSearch(utils);
+      }
+      else {
+        this.graph.depthFirstSearch(utils);
+      }
+      return utils.expanded;
+    }
+    else if (benchmark.equals("draw")) {
+      int cell = 0;
+      for (int i = 0; i < 1000; i++) {
+        cell = this.rand.nextInt(this.graph.grid.size());
+        this.graph.mark(cell, this.graph.marks[cell] == Graph.VISITED
+            ? Graph.UNVISITED : Graph.VISITED);
+      }
+      this.graph.draw();
+      // a pixel of the last cell marked, so the painting cannot be thrown away 
+      return this.graph.cellLayer.getPixel(this.graph.grid.columnOf(cell) * this.graph.cellWidth(),
+          this.graph.grid.rowOf(cell) * this.graph.cellHeight()).getRGB();
     }
+    throw new IllegalArgumentException("Unknown benchmark: " + benchmark);
   }
 
+  // returns how many bytes the current thread has allocated so far, or 0 if this 
+  // JVM cannot tell 
+  static long allocatedBytes() {
+    java.lang.management.ThreadMXBean bean =
+        java.lang.management.ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
 }
 
 // this class contains examples of the classes Maze, Graph, Cell, and Edge 
@@ -695,6 +4419,1601 @@ class ExamplesMaze {
     t.checkExpect(this.cell10.color, Color.yellow);
   }
 
+  // tests the methods index, rowOf, columnOf and size in the Grid class
+  void testGridIndex(Tester t) {
+    Grid grid = new Grid(3, 4);
+    t.checkExpect(grid.size(), 12);
+    t.checkExpect(grid.index(0, 0), 0);
+    t.checkExpect(grid.index(1, 2), 6);
+    t.checkExpect(grid.index(2, 3), 11);
+    t.checkExpect(grid.rowOf(6), 1);
+    t.checkExpect(grid.columnOf(6), 2);
+    t.checkExpect(grid.rowOf(11), 2);
+    t.checkExpect(grid.columnOf(11), 3);
+    t.checkExpect(grid.passages.length, 3);
+  }
+
+  // tests the methods open, close and connected in the Grid class
+  void testGridPassages(Tester t) {
+    Grid grid = new Grid(3, 4);
+    t.checkExpect(grid.connected(5, 6), false);
+    grid.open(6, 5);
+    t.checkExpect(grid.connected(5, 6), true);
+    t.checkExpect(grid.connected(6, 5), true);
+    t.checkExpect(grid.hasRight(5), true);
+    t.checkExpect(grid.hasDown(5), false);
+    grid.open(5, 9);
+    t.checkExpect(grid.connected(9, 5), true);
+    t.checkExpect(grid.bits(5), Grid.RIGHT | Grid.DOWN);
+    t.checkExpect(grid.bits(4), 0);
+    t.checkExpect(grid.bits(6), 0);
+    grid.close(5, 6);
+    t.checkExpect(grid.connected(5, 6), false);
+    t.checkExpect(grid.connected(5, 9), true);
+    // cells on different rows are never joined by a RIGHT bit
+    grid.open(2, 3);
+    t.checkExpect(grid.connected(3, 4), false);
+    t.checkException(new IllegalArgumentException("Cells 3 and 4 are not adjacent"),
+        grid, "open", 3, 4);
+    t.checkException(new IllegalArgumentException("Invalid grid size: 0x4"),
+        this, "makeGrid", 0, 4);
+  }
+
+  // makes a grid with the given size, used to test the Grid constructor
+  Grid makeGrid(int rows, int columns) {
+    return new Grid(rows, columns);
+  }
+
+  // tests the method neighbors in the Grid class
+  void testGridNeighbors(Tester t) {
+    Grid grid = new Grid(3, 4);
+    int[] out = new int[4];
+    t.checkExpect(grid.neighbors(5, out), 0);
+    grid.open(5, 1);
+    grid.open(5, 9);
+    grid.open(5, 4);
+    grid.open(5, 6);
+    t.checkExpect(grid.neighbors(5, out), 4);
+    t.checkExpect(out, new int[] {1, 9, 4, 6});
+    t.checkExpect(grid.neighbors(4, out), 1);
+    t.checkExpect(out[0], 5);
+  }
+
+  // tests that addEdges and kruskalsAlgorithm leave a maze with a single path between cells
+  void testKruskalsAlgorithm(Tester t) {
+    Graph graph = new Graph(new Random(5));
+    graph.makeGraph(6, 10);
+    graph.addEdges();
+    t.checkExpect(graph.edges, 59);
+    int passages = 0;
+    for (int i = 0; i < graph.grid.size(); i++) {
+      passages += Integer.bitCount(graph.grid.bits(i));
+    }
+    t.checkExpect(passages, 59);
+    Utils utils = new Utils();
+    t.checkExpect(graph.breadthFirstSearch(utils), true);
+    t.checkExpect(utils.graph, graph);
+  }
+
+  // tests the methods find and union in the DisjointSet class
+  void testDisjointSet(Tester t) {
+    DisjointSet sets = new DisjointSet(6);
+    t.checkExpect(sets.find(4), 4);
+    t.checkExpect(sets.union(0, 1), true);
+    t.checkExpect(sets.union(2, 3), true);
+    t.checkExpect(sets.find(1), sets.find(0));
+    t.checkExpect(sets.find(2) == sets.find(0), false);
+    t.checkExpect(sets.union(1, 3), true);
+    t.checkExpect(sets.find(3), sets.find(0));
+    t.checkExpect(sets.union(0, 2), false);
+    t.checkExpect(sets.find(5), 5);
+    t.checkExpect(sets.finds, 16L); // a union takes two finds
+    // values past the Integer cache behave the same as small ones
+    DisjointSet big = new DisjointSet(1000);
+    t.checkExpect(big.union(500, 900), true);
+    t.checkExpect(big.union(900, 500), false);
+  }
+
+  // tests the methods pack, cellOf, directionOf, weightOf and otherCell in EdgeList
+  void testEdgeListPack(Tester t) {
+    Grid grid = new Grid(3, 4);
+    long right = EdgeList.pack(6, Grid.RIGHT, 42);
+    long down = EdgeList.pack(6, Grid.DOWN, 99);
+    t.checkExpect(EdgeList.cellOf(right), 6);
+    t.checkExpect(EdgeList.directionOf(right), Grid.RIGHT);
+    t.checkExpect(EdgeList.weightOf(right), 42);
+    t.checkExpect(EdgeList.otherCell(right, grid), 7);
+    t.checkExpect(EdgeList.directionOf(down), Grid.DOWN);
+    t.checkExpect(EdgeList.weightOf(down), 99);
+    t.checkExpect(EdgeList.otherCell(down, grid), 10);
+    t.checkExpect(EdgeList.cellOf(EdgeList.pack(Integer.MAX_VALUE, Grid.DOWN, 0)),
+        Integer.MAX_VALUE);
+    t.checkExpect(right < down, true);
+  }
+
+  // tests the method sortedEdges in EdgeList
+  void testEdgeListSortedEdges(Tester t) {
+    Grid grid = new Grid(5, 7);
+    long[] edges = EdgeList.sortedEdges(grid, new Random(3));
+    t.checkExpect(edges.length, 4 * 7 + 5 * 6);
+    boolean sorted = true;
+    for (int i = 1; i < edges.length; i++) {
+      sorted = sorted && EdgeList.weightOf(edges[i - 1]) <= EdgeList.weightOf(edges[i]);
+    }
+    t.checkExpect(sorted, true);
+  }
+
+  // tests the methods add, remove and empty in StackCollection and QueueCollection
+  void testCollections(Tester t) {
+    ICollection stack = new StackCollection(3);
+    ICollection queue = new QueueCollection(3);
+    t.checkExpect(stack.empty(), true);
+    t.checkExpect(queue.empty(), true);
+    for (int i = 1; i <= 3; i++) {
+      stack.add(i);
+      queue.add(i);
+    }
+    t.checkExpect(stack.remove(), 3);
+    t.checkExpect(queue.remove(), 1);
+    queue.add(4);
+    t.checkExpect(queue.remove(), 2);
+    t.checkExpect(queue.remove(), 3);
+    t.checkExpect(queue.remove(), 4);
+    t.checkExpect(queue.empty(), true);
+    t.checkExpect(stack.remove(), 2);
+    t.checkExpect(stack.remove(), 1);
+    t.checkExpect(stack.empty(), true);
+  }
+
+  // makes a 2x3 graph whose only route from the corner goes along the top row and then 
+  // down the right side, with a dead end branching off the bottom left
+  Graph makeHookGraph() {
+    Graph graph = new Graph(new Random(1));
+    graph.makeGraph(2, 3);
+    graph.grid.open(0, 1);
+    graph.grid.open(1, 2);
+    graph.grid.open(2, 5);
+    graph.grid.open(0, 3);
+    graph.grid.open(3, 4);
+    return graph;
+  }
+
+  // tests the methods breadthFirstSearch and depthFirstSearch in the Graph class
+  void testSearchHelper(Tester t) {
+    Graph graph = this.makeHookGraph();
+    Utils bfs = new Utils();
+    t.checkExpect(graph.breadthFirstSearch(bfs), true);
+    t.checkExpect(Arrays.copyOf(bfs.floodCells, bfs.floodSize), new int[] {0, 3, 1, 4, 2});
+    t.checkExpect(bfs.path[5], 2);
+    t.checkExpect(bfs.path[2], 1);
+    t.checkExpect(bfs.path[1], 0);
+
+    Utils dfs = new Utils();
+    t.checkExpect(graph.depthFirstSearch(dfs), true);
+    t.checkExpect(Arrays.copyOf(dfs.floodCells, dfs.floodSize), new int[] {0, 1, 2});
+    t.checkExpect(dfs.path[5], 2);
+
+    graph.grid.close(2, 5);
+    t.checkExpect(graph.breadthFirstSearch(new Utils()), false);
+    t.checkExpect(graph.depthFirstSearch(new Utils()), false);
+  }
+
+  // tests that a search that cannot reach the last cell records what it expanded and 
+  // floods no path, instead of leaving the last search's result 
+  void testSearchesWithoutExit(Tester t) {
+    Graph open = this.makeOpenGraph(4, 5);
+    Utils utils = new Utils();
+    t.checkExpect(open.breadthFirstSearch(utils), true);
+    open.toggleWall(19, 18);
+    open.toggleWall(19, 14);
+    t.checkExpect(open.breadthFirstSearch(utils), false);
+    t.checkExpect(utils.expanded, 19);
+    t.checkExpect(utils.path.length, 0);
+    utils.skipToResult();
+    t.checkExpect(this.countMarks(open, Graph.VISITED), 19);
+    t.checkExpect(this.countMarks(open, Graph.PATH), 0);
+
+    t.checkExpect(open.depthFirstSearch(utils), false);
+    t.checkExpect(utils.expanded, 19);
+    t.checkExpect(open.aStarSearch(utils), false);
+    t.checkExpect(utils.expanded, 19);
+    t.checkExpect(open.dijkstraSearch(utils), false);
+    t.checkExpect(utils.expanded, 19);
+    t.checkExpect(open.parallelBreadthFirstSearch(utils), false);
+    t.checkExpect(utils.expanded, 19);
+    t.checkExpect(open.bidirectionalSearch(utils), false);
+    t.checkExpect(utils.expanded, 2); // the first cell, then the last
+    utils.skipToResult();
+    t.checkExpect(this.countMarks(open, Graph.PATH), 0);
+  }
+
+  // tests the method floodTheCells in the Utils class
+  void testFloodTheCells(Tester t) {
+    Graph graph = this.makeHookGraph();
+    Utils utils = new Utils();
+    utils.floodTheCells();
+    graph.depthFirstSearch(utils);
+    utils.floodTheCells();
+    t.checkExpect(graph.marks[0], Graph.VISITED);
+    t.checkExpect(graph.marks[1], Graph.UNVISITED);
+    utils.floodTheCells();
+    utils.floodTheCells();
+    t.checkExpect(graph.marks[2], Graph.PATH);
+    t.checkExpect(graph.colorOf(2), Color.red);
+    t.checkExpect(graph.colorOf(1), Color.pink);
+    utils.floodTheCells();
+    utils.floodTheCells();
+    utils.floodTheCells();
+    t.checkExpect(graph.marks, new byte[] {2, 2, 2, 0, 0, 0});
+  }
+
+  // tests the methods add, remove, minKey and empty in the CellHeap class
+  void testCellHeap(Tester t) {
+    CellHeap heap = new CellHeap(1);
+    long[] keys = {50, 3, 77, 3, 12, -4, 60};
+    for (int i = 0; i < keys.length; i++) {
+      heap.add(i, keys[i]);
+    }
+    t.checkExpect(heap.size, 7);
+    t.checkExpect(heap.minKey(), -4L);
+    t.checkExpect(heap.remove(), 5);
+    t.checkExpect(heap.minKey(), 3L);
+    heap.remove();
+    heap.remove();
+    t.checkExpect(heap.remove(), 4);
+    t.checkExpect(heap.remove(), 0);
+    t.checkExpect(heap.remove(), 6);
+    t.checkExpect(heap.remove(), 2);
+    t.checkExpect(heap.empty(), true);
+  }
+
+  // returns the path the given utils would flood red, from the last cell to the first
+  ArrayList<Integer> pathOf(Utils utils) {
+    ArrayList<Integer> path = new ArrayList<Integer>();
+    int cell = utils.graph.grid.size() - 1;
+    path.add(cell);
+    while (cell != 0) {
+      cell = utils.path[cell];
+      path.add(cell);
+    }
+    return path;
+  }
+
+  // returns how many cells of the given graph have the given mark
+  int countMarks(Graph graph, byte mark) {
+    int count = 0;
+    for (byte cellMark : graph.marks) {
+      count += cellMark == mark ? 1 : 0;
+    }
+    return count;
+  }
+
+  // tests the methods aStarSearch and bidirectionalSearch in the Graph class
+  void testAStarAndBidirectionalSearch(Tester t) {
+    Graph hook = this.makeHookGraph();
+    Utils aStar = new Utils();
+    Utils both = new Utils();
+    t.checkExpect(hook.aStarSearch(aStar), true);
+    t.checkExpect(this.pathOf(aStar), new ArrayList<Integer>(Arrays.asList(5, 2, 1, 0)));
+    t.checkExpect(hook.bidirectionalSearch(both), true);
+    t.checkExpect(this.pathOf(both), new ArrayList<Integer>(Arrays.asList(5, 2, 1, 0)));
+
+    for (int seed = 0; seed < 5; seed++) {
+      Graph graph = new Graph(new Random(seed));
+      graph.makeGraph(30, 50);
+      graph.addEdges();
+      Utils bfs = new Utils();
+      aStar = new Utils();
+      both = new Utils();
+      graph.breadthFirstSearch(bfs);
+      t.checkExpect(graph.aStarSearch(aStar), true);
+      t.checkExpect(graph.bidirectionalSearch(both), true);
+      t.checkExpect(this.pathOf(aStar), this.pathOf(bfs));
+      t.checkExpect(this.pathOf(both), this.pathOf(bfs));
+      t.checkExpect(aStar.expanded <= bfs.expanded, true);
+      t.checkExpect(both.expanded <= bfs.expanded, true);
+    }
+
+    hook.grid.close(2, 5);
+    t.checkExpect(hook.aStarSearch(new Utils()), false);
+    t.checkExpect(hook.bidirectionalSearch(new Utils()), false);
+  }
+
+  // checks that the given grid is a perfect maze, where every cell can reach every 
+  // other cell through exactly one path
+  boolean isPerfectMaze(Grid grid) {
+    DisjointSet sets = new DisjointSet(grid.size());
+    int passages = 0;
+    for (int cell = 0; cell < grid.size(); cell++) {
+      if (grid.hasRight(cell) && !sets.union(cell, cell + 1)) {
+        return false;
+      }
+      if (grid.hasDown(cell) && !sets.union(cell, cell + grid.columns)) {
+        return false;
+      }
+      passages += Integer.bitCount(grid.bits(cell));
+    }
+    return passages == grid.size() - 1;
+  }
+
+  // tests the methods generate and runTile in the ParallelKruskal class
+  void testParallelKruskal(Tester t) {
+    Grid grid1 = new Grid(45, 70);
+    Grid grid2 = new Grid(45, 70);
+    ForkJoinPool one = new ForkJoinPool(1);
+    ForkJoinPool four = new ForkJoinPool(4);
+    t.checkExpect(new ParallelKruskal(grid1, new Random(8), 16).generate(one), 45 * 70 - 1);
+    t.checkExpect(new ParallelKruskal(grid2, new Random(8), 16).generate(four), 45 * 70 - 1);
+    t.checkExpect(this.isPerfectMaze(grid1), true);
+    t.checkExpect(grid1.passages, grid2.passages);
+    one.shutdown();
+    four.shutdown();
+
+    Graph graph = new Graph(new Random(2));
+    graph.makeGraph(20, 33);
+    graph.addEdgesInParallel();
+    t.checkExpect(graph.edges, 20 * 33 - 1);
+    t.checkExpect(this.isPerfectMaze(graph.grid), true);
+    t.checkExpect(graph.breadthFirstSearch(new Utils()), true);
+  }
+
+  // makes a graph with the given size where every wall is open
+  Graph makeOpenGraph(int rows, int columns) {
+    Graph graph = new Graph(new Random(1));
+    graph.makeGraph(rows, columns);
+    for (int cell = 0; cell < graph.grid.size(); cell++) {
+      if (graph.grid.columnOf(cell) < columns - 1) {
+        graph.grid.open(cell, cell + 1);
+      }
+      if (graph.grid.rowOf(cell) < rows - 1) {
+        graph.grid.open(cell, cell + columns);
+      }
+    }
+    return graph;
+  }
+
+  // tests the method search in the ParallelBreadthFirstSearch class
+  void testParallelBreadthFirstSearch(Tester t) {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    ArrayList<Graph> graphs = new ArrayList<Graph>(Arrays.asList(this.makeHookGraph(),
+        this.makeOpenGraph(17, 23)));
+    for (int seed = 0; seed < 3; seed++) {
+      Graph graph = new Graph(new Random(seed));
+      graph.makeGraph(40, 66);
+      graph.addEdges();
+      graphs.add(graph);
+    }
+    for (Graph graph : graphs) {
+      Utils sequential = new Utils();
+      Utils parallel = new Utils();
+      graph.breadthFirstSearch(sequential);
+      t.checkExpect(new ParallelBreadthFirstSearch(graph.grid, 3).search(graph, parallel, pool),
+          true);
+      t.checkExpect(Arrays.copyOf(parallel.floodCells, parallel.floodSize),
+          Arrays.copyOf(sequential.floodCells, sequential.floodSize));
+      t.checkExpect(this.pathOf(parallel), this.pathOf(sequential));
+    }
+    Graph hook = this.makeHookGraph();
+    hook.grid.close(2, 5);
+    t.checkExpect(new ParallelBreadthFirstSearch(hook.grid, 1).search(hook, new Utils(), pool),
+        false);
+    t.checkExpect(graphs.get(2).parallelBreadthFirstSearch(new Utils()), true);
+    pool.shutdown();
+  }
+
+  // tests the methods draw, mark and paintCell in the Graph class
+  void testDrawDirtyCells(Tester t) {
+    Graph graph = this.makeHookGraph();
+    WorldScene scene = graph.draw();
+    t.checkExpect(scene == graph.scene, true);
+    t.checkExpect(graph.cellWidth(), 166);
+    t.checkExpect(graph.cellHeight(), 150);
+    t.checkExpect(graph.cellLayer.getPixel(0, 0), Color.green);
+    t.checkExpect(graph.cellLayer.getPixel(200, 10), Color.LIGHT_GRAY);
+    t.checkExpect(graph.cellLayer.getPixel(497, 299), Color.magenta);
+
+    graph.mark(1, Graph.VISITED);
+    graph.mark(1, Graph.VISITED);
+    graph.mark(4, Graph.PATH);
+    t.checkExpect(graph.dirtySize, 2);
+    t.checkExpect(graph.cellLayer.getPixel(200, 10), Color.LIGHT_GRAY);
+    graph.draw();
+    t.checkExpect(graph.dirtySize, 0);
+    t.checkExpect(graph.cellLayer.getPixel(200, 10), Color.pink);
+    t.checkExpect(graph.cellLayer.getPixel(200, 160), Color.red);
+    // a new scene is made for every frame instead of piling onto the last one
+    t.checkExpect(graph.draw() == scene, false);
+
+    for (int i = 0; i <= graph.dirty.length; i++) {
+      graph.mark(2, i % 2 == 0 ? Graph.PATH : Graph.UNVISITED);
+    }
+    graph.draw();
+    t.checkExpect(graph.cellLayer.getPixel(400, 10), Color.red);
+  }
+
+  // tests the methods drawEdges and wallsChanged in the Graph class
+  void testDrawEdges(Tester t) {
+    Graph graph = this.makeHookGraph();
+    graph.draw();
+    ComputedPixelImage walls = graph.wallLayer;
+    // the wall between the first and second rows under the middle cell
+    t.checkExpect(walls.getPixel(200, 149), Color.black);
+    // no wall between the first and second cells of the first row
+    t.checkExpect(walls.getPixel(165, 10).equals(Color.black), false);
+    // the wall between the second and third cells of the second row
+    t.checkExpect(walls.getPixel(331, 200), Color.black);
+    graph.draw();
+    t.checkExpect(graph.wallLayer == walls, true);
+
+    graph.grid.close(0, 1);
+    graph.wallsChanged();
+    graph.draw();
+    t.checkExpect(graph.wallLayer == walls, false);
+    t.checkExpect(graph.wallLayer.getPixel(165, 10), Color.black);
+  }
+
+  // tests the fields batch and budget and the method skipToResult in the Utils class
+  void testFloodBatches(Tester t) {
+    Graph graph = this.makeHookGraph();
+    Utils utils = new Utils();
+    utils.batch = 2;
+    graph.breadthFirstSearch(utils);
+    utils.floodTheCells();
+    t.checkExpect(graph.marks, new byte[] {1, 0, 0, 1, 0, 0});
+    utils.floodTheCells();
+    t.checkExpect(graph.marks, new byte[] {1, 1, 0, 1, 1, 0});
+    utils.floodTheCells();
+    t.checkExpect(graph.marks, new byte[] {1, 2, 2, 1, 1, 0});
+    t.checkExpect(utils.nextCell, 1);
+    utils.skipToResult();
+    t.checkExpect(graph.marks, new byte[] {2, 2, 2, 1, 1, 0});
+    t.checkExpect(utils.floodStep(), false);
+
+    Graph big = new Graph(new Random(4));
+    big.makeGraph(60, 100);
+    big.addEdges();
+    Utils timed = new Utils();
+    timed.batch = Integer.MAX_VALUE;
+    timed.budget = 1;
+    big.breadthFirstSearch(timed);
+    timed.floodTheCells();
+    t.checkExpect(timed.flooded, 64);
+  }
+
+  // tests the method pathLength in the Utils class
+  void testPathLength(Tester t) {
+    Graph graph = this.makeHookGraph();
+    Utils utils = new Utils();
+    graph.depthFirstSearch(utils);
+    t.checkExpect(utils.pathLength(), 4);
+    graph.grid.close(2, 5);
+    graph.depthFirstSearch(utils);
+    t.checkExpect(utils.pathLength(), 0);
+  }
+
+  // tests the methods parse and positive in the MazeRunner class
+  void testMazeRunnerParse(Tester t) {
+    MazeRunner runner = new MazeRunner();
+    runner.parse(new String[] {"--rows", "30", "--seed", "9", "--solver", "astar"});
+    t.checkExpect(runner.rows, 30);
+    t.checkExpect(runner.columns, 50);
+    t.checkExpect(runner.seed, 9L);
+    t.checkExpect(runner.repeat, 1);
+    t.checkExpect(runner.generator, "kruskal");
+    t.checkExpect(runner.solver, "astar");
+    t.checkException(new IllegalArgumentException("Unknown option: --solver magic"),
+        new MazeRunner(), "parse", (Object) new String[] {"--solver", "magic"});
+    t.checkException(new IllegalArgumentException("Missing value for --rows"),
+        new MazeRunner(), "parse", (Object) new String[] {"--rows"});
+    t.checkException(new IllegalArgumentException("--repeat must be positive: 0"),
+        new MazeRunner(), "positive", "--repeat", "0");
+  }
+
+  // tests the method run in the MazeRunner class
+  void testMazeRunnerRun(Tester t) {
+    MazeRunner runner = new MazeRunner();
+    runner.parse(new String[] {"--rows", "12", "--columns", "20", "--seed", "3",
+        "--repeat", "2", "--generator", "parallel", "--solver", "bidirectional"});
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      runner.run(new PrintStream(bytes));
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    String[] lines = bytes.toString().split("\\n");
+    t.checkExpect(lines.length, 3);
+    t.checkExpect(lines[0], "12x20 maze, parallel generator, bidirectional solver");
+    t.checkExpect(lines[1].startsWith("seed 3: 240 cells, 239 edges kept"), true);
+    t.checkExpect(lines[2].startsWith("seed 4: 240 cells, 239 edges kept"), true);
+  }
+
+  // tests the methods runAll and run in the MazeBenchmark class
+  void testMazeBenchmark(Tester t) {
+    MazeBenchmark benchmark = new MazeBenchmark();
+    benchmark.warmups = 0;
+    benchmark.iterations = 1;
+    benchmark.iterationNanos = 1;
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    benchmark.runAll(new int[] {6, 12}, new PrintStream(bytes));
+    String[] lines = bytes.toString().split("\\n");
+    t.checkExpect(lines.length, 9);
+    t.checkExpect(lines[1].startsWith("generate        6"), true);
+    t.checkExpect(lines[8].startsWith("draw           12"), true);
+    t.checkExpect(benchmark.run("generate", 6), 59);
+    int pixel = benchmark.run("draw", 12);
+    t.checkExpect(pixel == Color.pink.getRGB() || pixel == Color.LIGHT_GRAY.getRGB()
+        || pixel == Color.green.getRGB() || pixel == Color.magenta.getRGB(), true);
+    t.checkException(new IllegalArgumentException("Unknown benchmark: sort"),
+        benchmark, "run", "sort", 6);
+  }
+
+  // tests the methods save and open in the MazeFile class
+  void testMazeFile(Tester t) {
+    try {
+      File file = File.createTempFile("maze", ".bin");
+      file.deleteOnExit();
+      Graph graph = new Graph(new Random(6));
+      graph.makeGraph(21, 35);
+      graph.addEdges();
+      MazeFile.save(graph.grid, 6, file);
+      t.checkExpect(file.length(), 24L + (21 * 35 + 3) / 4);
+
+      MappedGrid mapped = MazeFile.open(file, false);
+      t.checkExpect(mapped.rows, 21);
+      t.checkExpect(mapped.columns, 35);
+      t.checkExpect(mapped.seed, 6L);
+      t.checkExpect(mapped.passageCount(), 21 * 35 - 1);
+      boolean same = true;
+      for (int cell = 0; cell < mapped.size(); cell++) {
+        same = same && mapped.bits(cell) == graph.grid.bits(cell);
+      }
+      t.checkExpect(same, true);
+
+      Utils fromMemory = new Utils();
+      Utils fromFile = new Utils();
+      graph.breadthFirstSearch(fromMemory);
+      Graph opened = new Graph();
+      opened.setGrid(mapped);
+      opened.breadthFirstSearch(fromFile);
+      t.checkExpect(this.pathOf(fromFile), this.pathOf(fromMemory));
+
+      MappedGrid writable = MazeFile.open(file, true);
+      writable.close(0, 1);
+      writable.open(0, 1);
+      writable.close(0, 35);
+      t.checkExpect(MazeFile.open(file, false).connected(0, 35), false);
+
+      File other = File.createTempFile("other", ".bin");
+      other.deleteOnExit();
+      MazeFile.save(mapped, 6, other);
+      t.checkExpect(other.length(), file.length());
+
+      File bad = File.createTempFile("not-a-maze", ".bin");
+      bad.deleteOnExit();
+      t.checkException(new IOException("Not a maze file: " + bad), this,
+          "openBadMazeFile", bad);
+      int[][] headers = {{0, 5}, {5, -3}, {100000, 100000}};
+      for (int[] header : headers) {
+        t.checkException(new IOException("Not a maze file: " + bad), this,
+            "openMazeFileWithHeader", bad, header[0], header[1]);
+      }
+      t.checkException(new IOException("Maze file " + bad + " should be 31 bytes but is 24"),
+          this, "openMazeFileWithHeader", bad, 5, 5);
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  // writes the given file too short to be a maze file and opens it 
+  MappedGrid openBadMazeFile(File file) throws IOException {
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(new byte[] {1, 2, 3});
+    out.close();
+    return MazeFile.open(file, false);
+  }
+
+  // writes the given file with only a header giving the given rows and columns, and 
+  // opens it 
+  MappedGrid openMazeFileWithHeader(File file, int rows, int columns) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(MazeFile.HEADER);
+    header.putInt(MazeFile.MAGIC).putInt(MazeFile.VERSION).putInt(rows).putInt(columns);
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(header.array());
+    out.close();
+    return MazeFile.open(file, false);
+  }
+
+  // tests the method generate in the EllerGenerator class with a GridSink
+  void testEllerGenerator(Tester t) {
+    int[][] sizes = {{1, 1}, {1, 9}, {9, 1}, {2, 2}, {17, 31}, {40, 12}};
+    for (int[] size : sizes) {
+      Grid grid = new Grid(size[0], size[1]);
+      new EllerGenerator(size[0], size[1], new Random(size[0] * 31 + size[1]))
+          .generate(new GridSink(grid));
+      t.checkExpect(this.isPerfectMaze(grid), true);
+    }
+    Graph graph = new Graph(new Random(3));
+    graph.makeGraph(20, 33);
+    graph.addEdgesByRows();
+    t.checkExpect(this.isPerfectMaze(graph.grid), true);
+    t.checkExpect(graph.depthFirstSearch(new Utils()), true);
+  }
+
+  // tests the methods acceptRow and close in the MazeFileWriter class
+  void testMazeFileWriter(Tester t) {
+    try {
+      File file = File.createTempFile("rows", ".bin");
+      file.deleteOnExit();
+      Grid grid = new Grid(13, 7);
+      new EllerGenerator(13, 7, new Random(12)).generate(new GridSink(grid));
+      MazeFileWriter writer = new MazeFileWriter(file, 13, 7, 12);
+      new EllerGenerator(13, 7, new Random(12)).generate(writer);
+      writer.close();
+      MappedGrid mapped = MazeFile.open(file, false);
+      t.checkExpect(mapped.seed, 12L);
+      boolean same = true;
+      for (int cell = 0; cell < grid.size(); cell++) {
+        same = same && mapped.bits(cell) == grid.bits(cell);
+      }
+      t.checkExpect(same, true);
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  // tests the methods ancestor, commonAncestor, distance and path in the TreeIndex class
+  void testTreeIndex(Tester t) {
+    TreeIndex hook = new TreeIndex(this.makeHookGraph().grid);
+    t.checkExpect(hook.depth, new int[] {0, 1, 2, 1, 2, 3});
+    t.checkExpect(hook.ancestor(5, 1), 1);
+    t.checkExpect(hook.commonAncestor(5, 4), 0);
+    t.checkExpect(hook.distance(5, 4), 5);
+    t.checkExpect(hook.path(4, 5), new int[] {4, 3, 0, 1, 2, 5});
+    t.checkExpect(hook.path(2, 2), new int[] {2});
+
+    Graph graph = new Graph(new Random(11));
+    graph.makeGraph(30, 50);
+    graph.addEdges();
+    TreeIndex index = new TreeIndex(graph.grid);
+    Random rand = new Random(1);
+    boolean matches = true;
+    for (int i = 0; i < 50; i++) {
+      int cell1 = rand.nextInt(graph.grid.size());
+      int cell2 = rand.nextInt(graph.grid.size());
+      int[] path = index.path(cell1, cell2);
+      matches = matches && path.length == index.distance(cell1, cell2) + 1
+          && path[0] == cell1 && path[path.length - 1] == cell2
+          && index.ancestor(cell1, 0) == 0;
+      for (int k = 1; k < path.length; k++) {
+        matches = matches && graph.grid.connected(path[k - 1], path[k]);
+      }
+    }
+    t.checkExpect(matches, true);
+
+    Utils bfs = new Utils();
+    Utils tree = new Utils();
+    graph.breadthFirstSearch(bfs);
+    t.checkExpect(graph.treeSearch(tree), true);
+    t.checkExpect(this.pathOf(tree), this.pathOf(bfs));
+    t.checkExpect(tree.expanded, 0);
+
+    // the path is shown even though no cells were searched, after another search too 
+    Graph fresh = new Graph(new Random(11));
+    fresh.makeGraph(30, 50);
+    fresh.addEdges();
+    Utils shown = new Utils();
+    fresh.treeSearch(shown);
+    shown.skipToResult();
+    t.checkExpect(this.countMarks(fresh, Graph.PATH), this.pathOf(bfs).size() - 1);
+    t.checkExpect(this.countMarks(fresh, Graph.VISITED), 0);
+    fresh.makeGraph(30, 50);
+    fresh.addEdges();
+    fresh.breadthFirstSearch(shown);
+    shown.skipToResult();
+    fresh.treeSearch(shown);
+    shown.skipToResult();
+    t.checkExpect(fresh.marks[shown.path[fresh.grid.size() - 1]], Graph.PATH);
+
+    // a last cell out of reach has no path to flood 
+    Graph apart = this.makeHookGraph();
+    apart.grid.close(2, 5);
+    Utils apartUtils = new Utils();
+    t.checkExpect(apart.treeSearch(apartUtils), false);
+    apartUtils.skipToResult();
+    t.checkExpect(apart.marks, new byte[] {0, 0, 0, 0, 0, 0});
+
+    Graph cut = this.makeHookGraph();
+    cut.grid.close(2, 5);
+    TreeIndex cutIndex = new TreeIndex(cut.grid);
+    t.checkExpect(cutIndex.distance(0, 5), -1);
+    t.checkExpect(cutIndex.path(5, 0), new int[0]);
+    t.checkExpect(cut.treeSearch(new Utils()), false);
+  }
+
+  // tests the methods chunk, hasRight, hasDown and window in the ChunkedMaze class
+  void testChunkedMaze(Tester t) {
+    ChunkedMaze maze = new ChunkedMaze(99, 8, 4);
+    Grid first = maze.chunk(-3, 5);
+    t.checkExpect(maze.chunk(-3, 5) == first, true);
+    t.checkExpect(this.isPerfectMaze(first), true);
+    t.checkExpect(maze.generated, 1);
+
+    // a window two by two chunks wide is connected through the four chunk borders, 
+    // which make the one loop in it
+    Grid window = maze.window(-16, -8, 16, 16);
+    Graph graph = new Graph();
+    graph.setGrid(window);
+    t.checkExpect(graph.breadthFirstSearch(new Utils()), true);
+    t.checkExpect(window.passageCount(), 4 * (8 * 8 - 1) + 4);
+    t.checkExpect(maze.chunks.size(), 4);
+
+    // thrown away chunks come back the same, and a smaller cache agrees with a bigger one
+    ChunkedMaze small = new ChunkedMaze(99, 8, 1);
+    Grid again = small.window(-16, -8, 16, 16);
+    maze.window(40, 40, 20, 20);
+    t.checkExpect(maze.chunks.size(), 4);
+    t.checkExpect(maze.chunk(-3, 5).passages, first.passages);
+    t.checkExpect(again.passages, window.passages);
+    t.checkExpect(small.chunks.size(), 1);
+    t.checkExpect(small.generated > 4, true);
+
+    // a window across the border of chunks (0, 0) and (0, 1) has the cells of both 
+    // chunks made on their own, and one passage across, in row 0 for seed 99 
+    Graph left = new Graph(new Random(maze.hash(0, 0, 0)));
+    left.makeGraph(8, 8);
+    left.addEdges();
+    Graph right = new Graph(new Random(maze.hash(0, 1, 0)));
+    right.makeGraph(8, 8);
+    right.addEdges();
+    Grid across = new ChunkedMaze(99, 8, 1).window(0, 4, 8, 8);
+    boolean sameCells = true;
+    String crossings = "";
+    for (int i = 0; i < 8; i++) {
+      for (int j = 0; j < 8; j++) {
+        Grid chunk = j < 4 ? left.grid : right.grid;
+        int cell = chunk.index(i, j < 4 ? j + 4 : j - 4);
+        sameCells = sameCells && across.hasDown(across.index(i, j)) == chunk.hasDown(cell)
+            && (j == 3 || j == 7 || across.hasRight(across.index(i, j)) == chunk.hasRight(cell));
+      }
+      crossings += across.hasRight(across.index(i, 3)) ? i : "";
+    }
+    t.checkExpect(sameCells, true);
+    t.checkExpect(crossings, "0");
+    String downs = "";
+    for (int c = 0; c < 8; c++) {
+      downs += maze.hasDown(7, c) ? c : "";
+    }
+    t.checkExpect(downs, "5");
+    t.checkExpect(Arrays.equals(new ChunkedMaze(7, 8, 2).window(0, 0, 8, 8).passages,
+        new ChunkedMaze(8, 8, 2).window(0, 0, 8, 8).passages), false);
+  }
+
+  // tests for MazeMetrics 
+  void testMazeMetrics(Tester t) {
+    MazeMetrics.counters.clear();
+    MazeMetrics.add("a", 2);
+    MazeMetrics.add("a", 3);
+    MazeMetrics.max("b", 7);
+    MazeMetrics.max("b", 4);
+    t.checkExpect(MazeMetrics.counters.get("a").get(), 5L);
+    t.checkExpect(MazeMetrics.counters.get("b").get(), 7L);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    MazeMetrics.report(new PrintStream(bytes, true));
+    String[] lines = bytes.toString().split("\n");
+    t.checkExpect(lines.length, 2);
+    t.checkExpect(lines[0].startsWith("a "), true);
+    t.checkExpect(lines[0].endsWith(" 5"), true);
+    t.checkExpect(lines[1].endsWith(" 7"), true);
+
+    SearchEvent event = new SearchEvent();
+    event.begin();
+    t.checkExpect(MazeMetrics.searched(event, "bfs", true, 10, 3, 0), true);
+    t.checkExpect(event.nanos() >= 0, true);
+    t.checkExpect(MazeMetrics.searched(new SearchEvent(), "dfs", false, 0, 1, 0), false);
+    SearchEvent flood = new SearchEvent();
+    flood.begin();
+    t.checkExpect(MazeMetrics.searched(flood, "flood", true), true);
+    t.checkExpect(flood.expanded, 0L);
+    SearchEvent bfs = new SearchEvent();
+    bfs.begin();
+    t.checkExpect(MazeMetrics.searched(bfs, "bfs", false, 12, 4), false);
+    t.checkExpect(bfs.expanded, 12L);
+    t.checkExpect(bfs.peakFrontier, 4L);
+    GenerationEvent kruskal = new GenerationEvent();
+    kruskal.begin();
+    MazeMetrics.generated(kruskal, "kruskal", 6, 7, 14, 5);
+    t.checkExpect(kruskal.finds, 14L);
+    t.checkExpect(kruskal.unions, 5L);
+    MazeMetrics.counters.clear();
+  }
+
+  // tests that the searches report the same answers with their events 
+  void testSearchEvents(Tester t) {
+    Graph graph = this.makeHookGraph();
+    QueueCollection queue = new QueueCollection(graph.grid.size());
+    t.checkExpect(queue.size(), 0);
+    queue.add(4);
+    queue.add(2);
+    t.checkExpect(queue.size(), 2);
+    queue.remove();
+    t.checkExpect(queue.size(), 1);
+    StackCollection stack = new StackCollection(graph.grid.size());
+    stack.add(1);
+    t.checkExpect(stack.size(), 1);
+
+    Utils utils = new Utils();
+    t.checkExpect(graph.aStarSearch(utils), true);
+    t.checkExpect(utils.pathLength(), 4);
+    t.checkExpect(graph.breadthFirstSearch(new Utils()), true);
+    t.checkExpect(graph.bidirectionalSearch(new Utils()), true);
+  }
+
+  // tests the methods route and routes in the RouteService class and search in the 
+  // RouteScratch class
+  void testRouteService(Tester t) {
+    RouteService hook = new RouteService(this.makeHookGraph().grid);
+    t.checkExpect(hook.route(4, 5), new int[] {4, 3, 0, 1, 2, 5});
+    t.checkExpect(hook.route(2, 2), new int[] {2});
+    t.checkExpect(hook.route(5, 3), new int[] {5, 2, 1, 0, 3});
+    t.checkExpect(hook.pool.size(), 1);
+    t.checkException(new IllegalArgumentException("Invalid route: 0 to 6"),
+        hook, "route", 0, 6);
+    t.checkException(new IllegalArgumentException("Starts and ends differ in length"),
+        hook, "routes", new int[] {0}, new int[0], ForkJoinPool.commonPool());
+
+    Graph cut = this.makeHookGraph();
+    cut.grid.close(2, 5);
+    t.checkExpect(new RouteService(cut.grid).route(0, 5), new int[0]);
+
+    RouteScratch scratch = new RouteScratch(6);
+    scratch.query = -1;
+    t.checkExpect(scratch.search(cut.grid, 0, 4), new int[] {0, 3, 4});
+    t.checkExpect(scratch.query, 1);
+
+    Graph graph = new Graph(new Random(11));
+    graph.makeGraph(30, 50);
+    graph.addEdges();
+    TreeIndex index = new TreeIndex(graph.grid);
+    RouteService service = new RouteService(graph.grid);
+    Random rand = new Random(2);
+    int[] starts = new int[200];
+    int[] ends = new int[200];
+    for (int i = 0; i < starts.length; i++) {
+      starts[i] = rand.nextInt(graph.grid.size());
+      ends[i] = rand.nextInt(graph.grid.size());
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+    int[][] routes = service.routes(starts, ends, pool);
+    pool.shutdown();
+    boolean matches = true;
+    for (int i = 0; i < starts.length; i++) {
+      matches = matches && Arrays.equals(routes[i], index.path(starts[i], ends[i]));
+    }
+    t.checkExpect(matches, true);
+    t.checkExpect(service.pool.isEmpty(), false);
+    t.checkExpect(service.routes(new int[0], new int[0], ForkJoinPool.commonPool()),
+        new int[0][]);
+  }
+
+  // tests the constructor and the method path in the CorridorGraph class
+  void testCorridorGraph(Tester t) {
+    CorridorGraph hook = new CorridorGraph(this.makeHookGraph().grid);
+    t.checkExpect(hook.nodes, 2);
+    t.checkExpect(hook.nodeOf, new int[] {-1, -1, -1, -1, 0, 1});
+    t.checkExpect(hook.targets, new int[] {1, 0});
+    t.checkExpect(hook.lengths, new int[] {5, 5});
+    t.checkExpect(hook.steps, new int[] {3, 2});
+    t.checkExpect(hook.path(4, 5), new int[] {4, 3, 0, 1, 2, 5});
+    t.checkExpect(hook.path(1, 3), new int[] {1, 0, 3});
+    t.checkExpect(hook.path(2, 4), new int[] {2, 1, 0, 3, 4});
+    t.checkExpect(hook.path(5, 1), new int[] {5, 2, 1});
+    t.checkExpect(hook.path(3, 3), new int[] {3});
+
+    // a loop with no junction gets its first cell made a node 
+    CorridorGraph loop = new CorridorGraph(this.makeOpenGraph(2, 2).grid);
+    t.checkExpect(loop.nodes, 1);
+    t.checkExpect(loop.lengths, new int[] {4, 4});
+    t.checkExpect(loop.path(1, 2).length, 3);
+    t.checkExpect(loop.path(3, 0).length, 3);
+
+    Graph cut = this.makeHookGraph();
+    cut.grid.close(2, 5);
+    t.checkExpect(new CorridorGraph(cut.grid).path(0, 5), new int[0]);
+    Utils cutUtils = new Utils();
+    t.checkExpect(cut.corridorSearch(cutUtils), false);
+    t.checkExpect(cutUtils.path.length, 0);
+    cutUtils.skipToResult();
+    t.checkExpect(this.countMarks(cut, Graph.PATH), 0);
+
+    // on a perfect maze the path is the only one, and on an open grid it is as short 
+    // as the one breadth first search finds 
+    Graph graph = new Graph(new Random(11));
+    graph.makeGraph(30, 50);
+    graph.addEdges();
+    Graph open = this.makeOpenGraph(7, 9);
+    open.grid.close(10, 11);
+    open.grid.close(30, 39);
+    CorridorGraph corridors = new CorridorGraph(graph.grid);
+    CorridorGraph openCorridors = new CorridorGraph(open.grid);
+    TreeIndex index = new TreeIndex(graph.grid);
+    RouteService routes = new RouteService(open.grid);
+    Random rand = new Random(5);
+    boolean matches = true;
+    for (int i = 0; i < 100; i++) {
+      int cell1 = rand.nextInt(graph.grid.size());
+      int cell2 = rand.nextInt(graph.grid.size());
+      matches = matches && Arrays.equals(corridors.path(cell1, cell2),
+          index.path(cell1, cell2));
+      int open1 = rand.nextInt(open.grid.size());
+      int open2 = rand.nextInt(open.grid.size());
+      int[] path = openCorridors.path(open1, open2);
+      matches = matches && path.length == routes.route(open1, open2).length
+          && path[0] == open1 && path[path.length - 1] == open2;
+      for (int k = 1; k < path.length; k++) {
+        matches = matches && open.grid.connected(path[k - 1], path[k]);
+      }
+    }
+    t.checkExpect(matches, true);
+
+    Utils bfs = new Utils();
+    Utils contracted = new Utils();
+    graph.breadthFirstSearch(bfs);
+    t.checkExpect(graph.corridorSearch(contracted), true);
+    t.checkExpect(this.pathOf(contracted), this.pathOf(bfs));
+    t.checkExpect(contracted.expanded < bfs.expanded, true);
+    t.checkExpect(graph.corridors.nodeOf[contracted.floodCells[0]] >= 0, true);
+  }
+
+  // tests the method adjacent in the Grid class
+  void testAdjacent(Tester t) {
+    Grid grid = this.makeHookGraph().grid;
+    int[] out = new int[4];
+    t.checkExpect(grid.adjacent(0, out), 2);
+    t.checkExpect(out[0], 3);
+    t.checkExpect(out[1], 1);
+    t.checkExpect(grid.adjacent(4, out), 3);
+    t.checkExpect(Arrays.copyOf(out, 3), new int[] {1, 3, 5});
+    t.checkExpect(new Grid(1, 1).adjacent(0, out), 0);
+  }
+
+  // tests the method generate of every IMazeGenerator and in the Graph class
+  void testMazeGenerators(Tester t) {
+    IMazeGenerator[] generators = new IMazeGenerator[] {new KruskalGenerator(),
+        new ParallelKruskalGenerator(), new EllerGridGenerator(), new PrimGenerator(),
+        new WilsonGenerator(), new BacktrackerGenerator()};
+    for (IMazeGenerator generator : generators) {
+      Grid grid = new Grid(23, 37);
+      t.checkExpect(generator.generate(grid, new Random(8)), grid.size() - 1);
+      t.checkExpect(this.isPerfectMaze(grid), true);
+      Grid again = new Grid(23, 37);
+      generator.generate(again, new Random(8));
+      t.checkExpect(Arrays.equals(grid.passages, again.passages), true);
+      Grid line = new Grid(1, 5);
+      t.checkExpect(generator.generate(line, new Random(2)), 4);
+      t.checkExpect(this.isPerfectMaze(line), true);
+    }
+
+    // the kruskal generator builds the same maze addEdges always has 
+    Graph graph = new Graph(new Random(4));
+    graph.makeGraph(10, 16);
+    graph.addEdges();
+    Grid grid = new Grid(10, 16);
+    new KruskalGenerator().generate(grid, new Random(4));
+    t.checkExpect(Arrays.equals(grid.passages, graph.grid.passages), true);
+
+    Graph wilson = new Graph(new Random(4));
+    wilson.makeGraph(10, 16);
+    wilson.generate(new WilsonGenerator());
+    t.checkExpect(wilson.edges, 159);
+    t.checkExpect(wilson.breadthFirstSearch(new Utils()), true);
+  }
+
+  // tests the methods add, remove and clear in the BucketQueue class
+  void testBucketQueue(Tester t) {
+    BucketQueue queue = new BucketQueue(3);
+    t.checkExpect(queue.empty(), true);
+    queue.add(7, 2);
+    queue.add(8, 0);
+    queue.add(9, 3);
+    queue.add(6, 2);
+    t.checkExpect(queue.remove(), 8);
+    t.checkExpect(queue.distance, 0);
+    t.checkExpect(queue.remove(), 6);
+    t.checkExpect(queue.remove(), 7);
+    t.checkExpect(queue.distance, 2);
+    queue.add(5, 5); // wraps around to the bucket of distance 1
+    t.checkExpect(queue.remove(), 9);
+    t.checkExpect(queue.remove(), 5);
+    t.checkExpect(queue.distance, 5);
+    t.checkExpect(queue.empty(), true);
+    t.checkExpect(queue.entries, 4);
+    queue.clear();
+    t.checkExpect(queue.distance, 0);
+    t.checkExpect(queue.heads, new int[] {-1, -1, -1, -1});
+  }
+
+  // tests the methods addWeightedEdges, cost and dijkstraSearch in the Graph class
+  void testDijkstraSearch(Tester t) {
+    Graph hook = this.makeHookGraph();
+    Utils unweighted = new Utils();
+    t.checkExpect(hook.cost(0, 1), 1);
+    t.checkExpect(hook.dijkstraSearch(unweighted), true);
+    t.checkExpect(this.pathOf(unweighted), new ArrayList<Integer>(Arrays.asList(5, 2, 1, 0)));
+
+    // an open 2x3 grid where the top row is dear and the bottom row is cheap 
+    Graph open = this.makeOpenGraph(2, 3);
+    open.costs = new byte[12];
+    Arrays.fill(open.costs, (byte) 9);
+    open.costs[6] = 1; // 3 to 4
+    open.costs[8] = 1; // 4 to 5
+    open.costs[1] = 2; // 0 to 3
+    t.checkExpect(open.cost(3, 4), 1);
+    t.checkExpect(open.cost(3, 0), 2);
+    t.checkExpect(open.cost(1, 4), 9);
+    Utils cheap = new Utils();
+    t.checkExpect(open.dijkstraSearch(cheap), true);
+    t.checkExpect(this.pathOf(cheap), new ArrayList<Integer>(Arrays.asList(5, 4, 3, 0)));
+
+    // kruskal's maze is the same as before, and the costs are the weights plus one 
+    Graph plain = new Graph(new Random(6));
+    plain.makeGraph(15, 25);
+    plain.addEdges();
+    Graph weighted = new Graph(new Random(6));
+    weighted.makeGraph(15, 25);
+    weighted.addWeightedEdges();
+    t.checkExpect(Arrays.equals(weighted.grid.passages, plain.grid.passages), true);
+    boolean inRange = true;
+    for (int cell = 0; cell < weighted.grid.size(); cell++) {
+      if (cell % 25 != 24) {
+        inRange = inRange && weighted.cost(cell, cell + 1) >= 1
+            && weighted.cost(cell, cell + 1) <= EdgeList.MAX_WEIGHT;
+      }
+    }
+    t.checkExpect(inRange, true);
+    Utils bfs = new Utils();
+    Utils dijkstra = new Utils();
+    plain.breadthFirstSearch(bfs);
+    t.checkExpect(weighted.dijkstraSearch(dijkstra), true);
+    t.checkExpect(this.pathOf(dijkstra), this.pathOf(bfs));
+    weighted.makeGraph(2, 2);
+    t.checkExpect(weighted.costs, null);
+
+    Graph cut = this.makeHookGraph();
+    cut.grid.close(2, 5);
+    t.checkExpect(cut.dijkstraSearch(new Utils()), false);
+
+    // in a single column the cells below each other are also one apart 
+    Graph column = new Graph(new Random(6));
+    column.makeGraph(5, 1);
+    column.addWeightedEdges();
+    int total = 0;
+    boolean downward = true;
+    for (int cell = 0; cell < 4; cell++) {
+      downward = downward && column.cost(cell, cell + 1) == column.costs[cell * 2 + 1]
+          && column.cost(cell + 1, cell) >= 1;
+      total += column.cost(cell, cell + 1);
+    }
+    t.checkExpect(downward, true);
+    Utils line = new Utils();
+    t.checkExpect(column.dijkstraSearch(line), true);
+    t.checkExpect(this.pathOf(line), new ArrayList<Integer>(Arrays.asList(4, 3, 2, 1, 0)));
+    column.planner = new LifelongPlanner(column, 0, 4);
+    column.planner.plan();
+    t.checkExpect(column.planner.g[4], total);
+  }
+
+  // tests that dijkstraSearch finds the path of least cost on a weighted open grid 
+  void testDijkstraLeastCost(Tester t) {
+    Graph open = this.makeOpenGraph(6, 8);
+    open.costs = new byte[open.grid.size() * 2];
+    Random rand = new Random(3);
+    for (int i = 0; i < open.costs.length; i++) {
+      open.costs[i] = (byte) (1 + rand.nextInt(EdgeList.MAX_WEIGHT));
+    }
+    Utils utils = new Utils();
+    t.checkExpect(open.dijkstraSearch(utils), true);
+    ArrayList<Integer> path = this.pathOf(utils);
+    int cost = 0;
+    for (int k = 1; k < path.size(); k++) {
+      cost += open.cost(path.get(k - 1), path.get(k));
+    }
+
+    // bellman-ford over every cell gives the least cost to compare with 
+    int[] least = new int[open.grid.size()];
+    Arrays.fill(least, Integer.MAX_VALUE / 2);
+    least[0] = 0;
+    int[] neighbors = new int[4];
+    for (int round = 0; round < open.grid.size(); round++) {
+      for (int cell = 0; cell < open.grid.size(); cell++) {
+        int count = open.grid.neighbors(cell, neighbors);
+        for (int i = 0; i < count; i++) {
+          least[neighbors[i]] = Math.min(least[neighbors[i]],
+              least[cell] + open.cost(cell, neighbors[i]));
+        }
+      }
+    }
+    t.checkExpect(cost, least[open.grid.size() - 1]);
+  }
+
+  // tests the methods plan, wallChanged and path in the LifelongPlanner class
+  void testLifelongPlanner(Tester t) {
+    Graph hook = this.makeHookGraph();
+    LifelongPlanner planner = new LifelongPlanner(hook, 4, 5);
+    t.checkExpect(planner.plan(), true);
+    t.checkExpect(planner.path(), new int[] {4, 3, 0, 1, 2, 5});
+    t.checkExpect(planner.g[5], 5);
+    t.checkExpect(planner.key(5), (5L << 32) | 5);
+
+    // a shortcut through a new passage is found, then lost again when it closes 
+    hook.grid.open(4, 5);
+    planner.wallChanged(4, 5);
+    t.checkExpect(planner.plan(), true);
+    t.checkExpect(planner.path(), new int[] {4, 5});
+    hook.grid.close(4, 5);
+    hook.grid.close(0, 1);
+    planner.wallChanged(4, 5);
+    planner.wallChanged(0, 1);
+    t.checkExpect(planner.plan(), false);
+    t.checkExpect(planner.path(), new int[0]);
+    t.checkExpect(planner.g[1], LifelongPlanner.INFINITE);
+    hook.grid.open(1, 4);
+    planner.wallChanged(1, 4);
+    t.checkExpect(planner.plan(), true);
+    t.checkExpect(planner.path(), new int[] {4, 1, 2, 5});
+
+    // after every wall toggled on an open grid the path is as short as a new search's 
+    Graph open = this.makeOpenGraph(12, 15);
+    LifelongPlanner lifelong = new LifelongPlanner(open, 0, open.grid.size() - 1);
+    lifelong.plan();
+    Random rand = new Random(9);
+    boolean matches = true;
+    int[] adjacent = new int[4];
+    for (int i = 0; i < 150; i++) {
+      int cell = rand.nextInt(open.grid.size());
+      int other = adjacent[rand.nextInt(open.grid.adjacent(cell, adjacent))];
+      open.toggleWall(cell, other);
+      lifelong.wallChanged(cell, other);
+      boolean found = lifelong.plan();
+      int[] route = new RouteService(open.grid).route(0, open.grid.size() - 1);
+      int[] path = lifelong.path();
+      matches = matches && found == (route.length > 0) && path.length == route.length;
+      for (int k = 1; k < path.length; k++) {
+        matches = matches && open.grid.connected(path[k - 1], path[k]);
+      }
+    }
+    t.checkExpect(matches, true);
+  }
+
+  // tests the methods toggleWall and incrementalSearch in the Graph class
+  void testIncrementalSearch(Tester t) {
+    Graph graph = new Graph(new Random(12));
+    graph.makeGraph(40, 60);
+    graph.addEdges();
+    graph.treeSearch(new Utils());
+    Utils first = new Utils();
+    Utils bfs = new Utils();
+    t.checkExpect(graph.incrementalSearch(first), true);
+    graph.breadthFirstSearch(bfs);
+    t.checkExpect(this.pathOf(first), this.pathOf(bfs));
+    first.skipToResult();
+    t.checkExpect(graph.marks[graph.planned[1]], Graph.PATH);
+
+    // closing a wall on the path cuts the only way, and opening it again repairs it 
+    int cell1 = graph.planned[graph.planned.length / 2];
+    int cell2 = graph.planned[graph.planned.length / 2 + 1];
+    int edges = graph.edges;
+    graph.toggleWall(cell1, cell2);
+    t.checkExpect(graph.edges, edges - 1);
+    t.checkExpect(graph.grid.connected(cell1, cell2), false);
+    t.checkExpect(graph.index, null);
+    Utils cut = new Utils();
+    t.checkExpect(graph.incrementalSearch(cut), false);
+    t.checkExpect(graph.marks[cell1], Graph.UNVISITED);
+    t.checkExpect(cut.path.length, 0);
+    cut.skipToResult();
+    t.checkExpect(this.countMarks(graph, Graph.PATH), 0);
+    graph.toggleWall(cell1, cell2);
+    Utils repaired = new Utils();
+    t.checkExpect(graph.incrementalSearch(repaired), true);
+    t.checkExpect(this.pathOf(repaired), this.pathOf(bfs));
+
+    // a wall far from the path changes almost nothing 
+    graph.toggleWall(graph.grid.index(39, 0), graph.grid.index(39, 1));
+    Utils far = new Utils();
+    graph.incrementalSearch(far);
+    t.checkExpect(far.expanded < first.expanded / 10, true);
+
+    // a wall that changes no distance expands nothing and still shows the path 
+    Graph same = new Graph(new Random(12));
+    same.makeGraph(40, 60);
+    same.addEdges();
+    Utils before = new Utils();
+    same.incrementalSearch(before);
+    before.skipToResult();
+    int shown = this.countMarks(same, Graph.PATH);
+    t.checkExpect(shown, graph.planned.length - 1);
+    t.checkExpect(same.grid.connected(10, 11), false);
+    same.toggleWall(10, 11);
+    Utils after = new Utils();
+    t.checkExpect(same.incrementalSearch(after), true);
+    t.checkExpect(after.expanded, 0);
+    after.skipToResult();
+    t.checkExpect(this.countMarks(same, Graph.PATH), shown);
+    graph.makeGraph(3, 3);
+    t.checkExpect(graph.planner, null);
+  }
+
+  // tests the method onMouseClicked in the Maze class
+  void testOnMouseClicked(Tester t) {
+    Maze maze = new Maze(6);
+    Grid grid = maze.graph.grid;
+    int width = maze.graph.cellWidth();
+    int height = maze.graph.cellHeight();
+    boolean connected = grid.connected(0, 1);
+    maze.onMouseClicked(new Posn(width - 1, height / 2));
+    t.checkExpect(grid.connected(0, 1), !connected);
+    connected = grid.connected(1, 1 + grid.columns);
+    maze.onMouseClicked(new Posn(width + width / 2, height - 1));
+    t.checkExpect(grid.connected(1, 1 + grid.columns), !connected);
+    int edges = maze.graph.edges;
+    maze.onMouseClicked(new Posn(0, height / 2)); // the edge of the maze
+    maze.onMouseClicked(new Posn(-5, 5));
+    t.checkExpect(maze.graph.edges, edges);
+    maze.onKeyEvent("i");
+    t.checkExpect(maze.graph.planner == null, false);
+  }
+
+  // returns the number of steps from the given cell to every cell of the given grid, or 
+  // -1 for the cells it cannot reach, found one cell at a time 
+  int[] distancesOf(Grid grid, int start) {
+    int[] distances = new int[grid.size()];
+    Arrays.fill(distances, -1);
+    QueueCollection queue = new QueueCollection(grid.size());
+    int[] neighbors = new int[4];
+    distances[start] = 0;
+    queue.add(start);
+    while (!queue.empty()) {
+      int next = queue.remove();
+      int count = grid.neighbors(next, neighbors);
+      for (int i = 0; i < count; i++) {
+        if (distances[neighbors[i]] < 0) {
+          distances[neighbors[i]] = distances[next] + 1;
+          queue.add(neighbors[i]);
+        }
+      }
+    }
+    return distances;
+  }
+
+  // tests the methods reachable, distances, within, contains and count in the BitFlood 
+  // class
+  void testBitFlood(Tester t) {
+    BitFlood hook = new BitFlood(this.makeHookGraph().grid);
+    t.checkExpect(hook.words, 1);
+    t.checkExpect(hook.right, new long[] {3L, 1L});
+    t.checkExpect(hook.down, new long[] {5L, 0L});
+    t.checkExpect(hook.distances(4), new int[] {2, 3, 4, 1, 0, 5});
+    t.checkExpect(hook.steps, 5);
+    t.checkExpect(hook.reachable(4, 5), true);
+    long[] near = hook.within(4, 2);
+    t.checkExpect(hook.count(near), 3);
+    t.checkExpect(hook.contains(near, 0), true);
+    t.checkExpect(hook.contains(near, 1), false);
+    t.checkExpect(hook.count(hook.within(2, 0)), 1);
+
+    Graph cut = this.makeHookGraph();
+    cut.grid.close(2, 5);
+    BitFlood cutFlood = new BitFlood(cut.grid);
+    t.checkExpect(cutFlood.reachable(0, 5), false);
+    t.checkExpect(cutFlood.distances(5), new int[] {-1, -1, -1, -1, -1, 0});
+    Utils cutUtils = new Utils();
+    t.checkExpect(cut.floodSearch(cutUtils), false);
+    cutUtils.skipToResult();
+    t.checkExpect(cut.marks, new byte[] {0, 0, 0, 0, 0, 0});
+
+    // rows of more than one word, on a perfect maze and on an open grid with loops 
+    Graph graph = new Graph(new Random(13));
+    graph.makeGraph(20, 150);
+    graph.addEdges();
+    Graph open = this.makeOpenGraph(9, 130);
+    Random rand = new Random(4);
+    int[] adjacent = new int[4];
+    for (int i = 0; i < 600; i++) {
+      int cell = rand.nextInt(open.grid.size());
+      int other = adjacent[rand.nextInt(open.grid.adjacent(cell, adjacent))];
+      if (open.grid.connected(cell, other)) {
+        open.grid.close(cell, other);
+      }
+    }
+    boolean matches = true;
+    for (Grid grid : new Grid[] {graph.grid, open.grid}) {
+      BitFlood flood = new BitFlood(grid);
+      for (int i = 0; i < 5; i++) {
+        int start = rand.nextInt(grid.size());
+        int[] expected = this.distancesOf(grid, start);
+        matches = matches && Arrays.equals(flood.distances(start), expected);
+        long[] within = flood.within(start, 40);
+        int inside = 0;
+        for (int cell = 0; cell < grid.size(); cell++) {
+          boolean close = expected[cell] >= 0 && expected[cell] <= 40;
+          matches = matches && flood.contains(within, cell) == close;
+          inside += close ? 1 : 0;
+        }
+        int reached = 0;
+        for (int distance : expected) {
+          reached += distance >= 0 ? 1 : 0;
+        }
+        int end = rand.nextInt(grid.size());
+        matches = matches && flood.count(within) == inside
+            && flood.count(flood.fill(start, -1)) == reached
+            && flood.reachable(start, end) == (expected[end] >= 0);
+      }
+    }
+    t.checkExpect(matches, true);
+
+    Utils bfs = new Utils();
+    Utils flooded = new Utils();
+    graph.breadthFirstSearch(bfs);
+    t.checkExpect(graph.floodSearch(flooded), true);
+    t.checkExpect(this.pathOf(flooded), this.pathOf(bfs));
+    Graph shown = new Graph(new Random(13));
+    shown.makeGraph(20, 150);
+    shown.addEdges();
+    Utils fresh = new Utils();
+    shown.floodSearch(fresh);
+    fresh.skipToResult();
+    t.checkExpect(this.countMarks(shown, Graph.PATH), this.pathOf(bfs).size() - 1);
+    t.checkExpect(this.countMarks(shown, Graph.VISITED), 0);
+    graph.toggleWall(0, 1);
+    t.checkExpect(graph.floods, null);
+  }
+
+  // tests the methods fit, pan, zoomBy, columnAt, rowAt and level in the Camera class
+  void testCamera(Tester t) {
+    Camera camera = Camera.fit(new Grid(100, 400), 200, 100);
+    t.checkExpect(camera.zoom, 0.5);
+    t.checkExpect(camera.level(), 1);
+    t.checkExpect(camera.columnAt(150), 300.0);
+    t.checkExpect(camera.rowAt(20), 40.0);
+    camera.pan(10, -4);
+    t.checkExpect(camera.left, 20.0);
+    t.checkExpect(camera.top, -8.0);
+    camera.zoomBy(8);
+    t.checkExpect(camera.zoom, 4.0);
+    t.checkExpect(camera.level(), 0);
+    t.checkExpect(camera.columnAt(100), 220.0);
+    t.checkExpect(camera.rowAt(50), 92.0);
+    t.checkExpect(camera.moves, 2);
+    camera.zoomBy(1000);
+    t.checkExpect(camera.zoom, Camera.MAX_ZOOM);
+    t.checkExpect(Camera.fit(new Grid(3000, 5000), 500, 300).level(), 4);
+    t.checkExpect(Camera.fit(new Grid(2, 3), 500, 300).zoom, 150.0);
+  }
+
+  // tests the methods buildLevels, strongest and markLevels in the Graph class
+  void testLevels(Tester t) {
+    Graph graph = new Graph(new Random(1));
+    graph.makeGraph(3, 5);
+    graph.buildLevels();
+    t.checkExpect(graph.levels.length, 4);
+    t.checkExpect(graph.levels[1].length, 6);
+    t.checkExpect(graph.levels[3], new byte[] {Graph.UNVISITED});
+    graph.mark(13, Graph.VISITED);
+    t.checkExpect(graph.levels[1], new byte[] {0, 0, 0, 0, 1, 0});
+    t.checkExpect(graph.levels[3], new byte[] {Graph.VISITED});
+    graph.mark(0, Graph.PATH);
+    t.checkExpect(graph.levels[2], new byte[] {Graph.PATH, Graph.UNVISITED});
+    graph.mark(4, Graph.VISITED);
+    graph.mark(0, Graph.UNVISITED);
+    t.checkExpect(graph.levels[2], new byte[] {Graph.VISITED, Graph.VISITED});
+    t.checkExpect(graph.levels[3], new byte[] {Graph.VISITED});
+  }
+
+  // tests the methods drawView, paintView and setCamera in the Graph class
+  void testDrawView(Tester t) {
+    Graph graph = this.makeHookGraph();
+    graph.setCamera(new Camera(40, 30, 0, 0, 10));
+    graph.draw();
+    ComputedPixelImage view = graph.view;
+    t.checkExpect(view.getWidth(), 40.0);
+    t.checkExpect(view.getPixel(5, 5), Color.green);
+    t.checkExpect(view.getPixel(25, 15), Color.magenta);
+    t.checkExpect(view.getPixel(15, 5), Color.LIGHT_GRAY);
+    t.checkExpect(view.getPixel(35, 5), Color.darkGray); // past the last column
+    t.checkExpect(view.getPixel(15, 9), Color.black); // the wall under cell 1
+    t.checkExpect(view.getPixel(19, 15), Color.black); // the wall between 4 and 5
+    t.checkExpect(view.getPixel(9, 5).equals(Color.black), false); // 0 to 1 is open
+    t.checkExpect(graph.wallLayer, null);
+
+    // the same frame is kept until the camera moves or a cell changes 
+    graph.draw();
+    t.checkExpect(graph.view == view, true);
+    graph.mark(1, Graph.PATH);
+    graph.draw();
+    t.checkExpect(graph.view.getPixel(15, 5), Color.red);
+    graph.camera.pan(10, 0);
+    graph.draw();
+    t.checkExpect(graph.view.getPixel(5, 5), Color.red);
+    graph.toggleWall(1, 4);
+    t.checkExpect(graph.view, null);
+    graph.draw();
+    t.checkExpect(graph.view.getPixel(5, 9).equals(Color.black), false);
+
+    // zoomed far out a pixel shows the strongest mark of its block 
+    Graph big = new Graph(new Random(2));
+    big.makeGraph(300, 500);
+    big.mark(big.grid.index(150, 260), Graph.PATH);
+    big.setCamera(Camera.fit(big.grid, 50, 30));
+    big.draw();
+    t.checkExpect(big.levels == null, false);
+    t.checkExpect(big.view.getPixel(26, 15), Color.red);
+    t.checkExpect(big.view.getPixel(25, 15), Color.LIGHT_GRAY);
+    big.setCamera(null);
+    t.checkExpect(big.cellLayer, null);
+  }
+
+  // tests that a maze too big for the canvas is drawn through a camera that the keys 
+  // move, and that the clicks land on the cells under the camera
+  void testMazeCamera(Tester t) {
+    Maze small = new Maze(6);
+    t.checkExpect(small.graph.camera, null);
+    small.onKeyEvent("+");
+    t.checkExpect(small.graph.camera.zoom, 100.0);
+    small.onKeyEvent("0");
+    t.checkExpect(small.graph.camera, null);
+
+    Maze maze = new Maze(600);
+    Camera camera = maze.graph.camera;
+    t.checkExpect(camera.zoom, 0.5);
+    maze.onKeyEvent("right");
+    t.checkExpect(camera.left, 250.0);
+    maze.onKeyEvent("down");
+    t.checkExpect(camera.top, 150.0);
+    maze.onKeyEvent("=");
+    t.checkExpect(camera.zoom, 1.0);
+    maze.onKeyEvent("-");
+    maze.onKeyEvent("left");
+    maze.onKeyEvent("up");
+    t.checkExpect(camera.left, 0.0);
+    t.checkExpect(camera.top, 0.0);
+    maze.onKeyEvent("0");
+    t.checkExpect(maze.graph.camera == camera, true);
+    t.checkExpect(maze.makeScene() == maze.graph.scene, true);
+    t.checkExpect(maze.graph.view.getWidth(), (double) Graph.width);
+
+    maze.onKeyEvent("+");
+    maze.onKeyEvent("+");
+    maze.onKeyEvent("+");
+    Grid grid = maze.graph.grid;
+    int x = 100;
+    while (camera.columnAt(x) - Math.floor(camera.columnAt(x)) < 0.75) {
+      x++;
+    }
+    int y = 100;
+    while (Math.abs(camera.rowAt(y) - Math.floor(camera.rowAt(y)) - 0.5) > 0.2) {
+      y++;
+    }
+    int cell = grid.index((int) Math.floor(camera.rowAt(y)),
+        (int) Math.floor(camera.columnAt(x)));
+    boolean connected = grid.connected(cell, cell + 1);
+    maze.onMouseClicked(new Posn(x, y));
+    t.checkExpect(grid.connected(cell, cell + 1), !connected);
+  }
+
+  // tests that the classes StackCollection and QueueCollection grow past their capacity
+  void testCollectionsGrow(Tester t) {
+    ICollection stack = new StackCollection(2);
+    ICollection queue = new QueueCollection(2);
+    queue.add(1);
+    queue.add(2);
+    t.checkExpect(queue.remove(), 1);
+    for (int i = 3; i <= 6; i++) {
+      stack.add(i);
+      queue.add(i);
+    }
+    t.checkExpect(stack.size(), 4);
+    t.checkExpect(queue.size(), 5);
+    for (int i = 2; i <= 6; i++) {
+      t.checkExpect(queue.remove(), i);
+    }
+    t.checkExpect(stack.remove(), 6);
+    t.checkExpect(stack.remove(), 5);
+    t.checkExpect(queue.empty(), true);
+  }
+
+  // tests the methods step, reach and parentOf in the SteppedSearch class
+  void testSteppedSearch(Tester t) {
+    Graph graph = this.makeHookGraph();
+    SteppedSearch bfs = new SteppedSearch(graph, new QueueCollection(1));
+    for (int i = 0; i < 5; i++) {
+      t.checkExpect(bfs.step(), true);
+    }
+    t.checkExpect(graph.marks, new byte[] {1, 1, 1, 1, 1, 0});
+    t.checkExpect(bfs.expanded, 5);
+    t.checkExpect(bfs.found, false);
+    t.checkExpect(bfs.step(), true);
+    t.checkExpect(bfs.found, true);
+    t.checkExpect(bfs.parentOf(5), 2);
+    t.checkExpect(bfs.parentOf(4), 3);
+    t.checkExpect(bfs.parentOf(3), 0);
+    t.checkExpect(bfs.step(), true);
+    t.checkExpect(graph.marks, new byte[] {1, 1, 2, 1, 1, 0});
+    bfs.step();
+    t.checkExpect(bfs.done, false);
+    t.checkExpect(bfs.step(), true);
+    t.checkExpect(bfs.done, true);
+    t.checkExpect(bfs.step(), false);
+    t.checkExpect(graph.marks, new byte[] {2, 2, 2, 1, 1, 0});
+
+    Graph other = this.makeHookGraph();
+    SteppedSearch dfs = new SteppedSearch(other, new StackCollection(1));
+    while (dfs.step()) {
+      // every step is done by step
+    }
+    t.checkExpect(dfs.expanded, 3);
+    t.checkExpect(other.marks, new byte[] {2, 2, 2, 0, 0, 0});
+
+    other.grid.close(2, 5);
+    SteppedSearch stuck = new SteppedSearch(other, new QueueCollection(1));
+    while (stuck.step()) {
+      // every step is done by step
+    }
+    t.checkExpect(stuck.found, false);
+    t.checkExpect(stuck.done, true);
+    t.checkExpect(stuck.pathLength(), 0);
+    t.checkExpect(stuck.expanded, 5);
+  }
 
+  // tests the methods start, floodStep and skipToResult in the Utils class with a 
+  // search run a step at a time
+  void testUtilsStart(Tester t) {
+    Graph graph = this.makeHookGraph();
+    Utils utils = new Utils();
+    graph.breadthFirstSearch(utils);
+    utils.start(new SteppedSearch(graph, new QueueCollection(4)));
+    t.checkExpect(utils.expanded, 0);
+    utils.batch = 3;
+    utils.floodTheCells();
+    t.checkExpect(utils.expanded, 3);
+    t.checkExpect(graph.marks, new byte[] {1, 1, 0, 1, 0, 0});
+    t.checkExpect(utils.pathLength(), 0);
+    utils.skipToResult();
+    t.checkExpect(utils.expanded, 5);
+    t.checkExpect(utils.search.done, true);
+    t.checkExpect(utils.pathLength(), 4);
+    t.checkExpect(graph.marks, new byte[] {2, 2, 2, 1, 1, 0});
+    graph.depthFirstSearch(utils);
+    t.checkExpect(utils.search, null);
+  }
 
+  // tests the methods onKeyEvent, onTick and reportIfDone in the Maze class with the 
+  // searches run a step at a time
+  void testSteppedKeys(Tester t) {
+    Maze maze = new Maze(6);
+    Utils eager = new Utils();
+    maze.graph.breadthFirstSearch(eager);
+    maze.onKeyEvent("b");
+    t.checkExpect(maze.running, "breadth first search");
+    t.checkExpect(maze.utils.expanded, 0);
+    maze.onTick();
+    t.checkExpect(maze.utils.expanded, 1);
+    t.checkExpect(maze.running, "breadth first search");
+    maze.onKeyEvent("s");
+    t.checkExpect(maze.running, null);
+    t.checkExpect(maze.utils.search.found, true);
+    t.checkExpect(maze.utils.expanded, eager.expanded);
+    t.checkExpect(maze.graph.marks[0], Graph.PATH);
+
+    maze.onKeyEvent("d");
+    t.checkExpect(maze.running, "depth first search");
+    for (int i = 0; i < 2 * maze.graph.grid.size() && maze.running != null; i++) {
+      maze.onTick();
+    }
+    t.checkExpect(maze.running, null);
+    t.checkExpect(maze.utils.search.done, true);
+  }
 }
\ No newline at end of file